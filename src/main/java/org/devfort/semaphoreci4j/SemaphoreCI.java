@@ -2,25 +2,37 @@ package org.devfort.semaphoreci4j;
 
 import org.devfort.semaphoreci4j.client.SemaphoreHttpClient;
 import org.devfort.semaphoreci4j.client.SemaphoreHttpConnection;
+import org.devfort.semaphoreci4j.model.FetchPlan;
+import org.devfort.semaphoreci4j.model.GraphLoader;
 import org.devfort.semaphoreci4j.model.Model;
 import org.devfort.semaphoreci4j.model.Project;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * The main entry point for interacting with Semaphore CI API.
+ * <p>
+ * The constructors request the projects right away, blocking until they are received. To start up
+ * without waiting for the API, create the instance using {@link #lazy(SemaphoreHttpConnection)},
+ * which requests the projects on the first access, or {@link #createAsync(SemaphoreHttpConnection)},
+ * which requests them in the background.
  *
  * @author sokolovic
  */
 public class SemaphoreCI {
 
     private final String rootUrl;
-    private Map<String, Project> projects;
+    private volatile ProjectIndex projects;
+    private volatile CompletableFuture<ProjectIndex> loading;
     private SemaphoreHttpConnection client;
 
     /**
@@ -30,22 +42,118 @@ public class SemaphoreCI {
      * @throws IOException If an error occurs while connecting to Semaphore API.
      */
     public SemaphoreCI(String authToken) throws IOException {
-        this.rootUrl = Model.getRootApiUrl() + "/projects?auth_token=" + authToken;
-        this.client = new SemaphoreHttpClient(authToken);
+        this(new SemaphoreHttpClient(authToken));
+    }
+
+    /**
+     * Initializes the instance of Semaphore API client which uses the given connection for
+     * interacting with Semaphore API. Use this constructor in order to provide the custom configured
+     * connection, e.g. the one created through {@link SemaphoreHttpClient.Builder}.
+     *
+     * @param client Authenticated connection to Semaphore API.
+     * @throws IOException If an error occurs while connecting to Semaphore API.
+     */
+    public SemaphoreCI(SemaphoreHttpConnection client) throws IOException {
+        this(Model.getRootApiUrl() + "/projects", client);
         this.projects = doGetProjects();
     }
 
     /**
-     * Returns all Semaphore projects as map, where project name is used as a key.
+     * Initializes the instance of Semaphore API client without requesting the projects.
+     *
+     * @param rootUrl URL of the project list.
+     * @param client  Authenticated connection to Semaphore API.
+     */
+    private SemaphoreCI(String rootUrl, SemaphoreHttpConnection client) {
+        this.rootUrl = rootUrl;
+        this.client = client;
+    }
+
+    /**
+     * Creates the instance of Semaphore API client with the given authentication token, which requests
+     * the projects only on the first access.
+     *
+     * @param authToken Semaphore API authentication token.
+     * @return New, lazy {@link SemaphoreCI} instance.
+     * @see #lazy(SemaphoreHttpConnection)
+     */
+    public static SemaphoreCI lazy(String authToken) {
+        return lazy(new SemaphoreHttpClient(authToken));
+    }
+
+    /**
+     * Creates the instance of Semaphore API client which uses the given connection, and requests the
+     * projects only on the first access, so the creation does not block on the network.
+     *
+     * @param client Authenticated connection to Semaphore API.
+     * @return New, lazy {@link SemaphoreCI} instance.
+     */
+    public static SemaphoreCI lazy(SemaphoreHttpConnection client) {
+        return new SemaphoreCI(Model.getRootApiUrl() + "/projects", client);
+    }
+
+    /**
+     * Creates the instance of Semaphore API client with the given authentication token, requesting the
+     * projects in the background.
+     *
+     * @param authToken Semaphore API authentication token.
+     * @return Future of the {@link SemaphoreCI} instance, completed once the projects are received.
+     * @see #createAsync(SemaphoreHttpConnection)
+     */
+    public static CompletableFuture<SemaphoreCI> createAsync(String authToken) {
+        return createAsync(new SemaphoreHttpClient(authToken));
+    }
+
+    /**
+     * Creates the instance of Semaphore API client which uses the given connection, requesting the
+     * projects in the background, without blocking the calling thread.
+     *
+     * @param client Authenticated connection to Semaphore API.
+     * @return Future of the {@link SemaphoreCI} instance, completed once the projects are received, or
+     * completed exceptionally if they could not be requested.
+     */
+    public static CompletableFuture<SemaphoreCI> createAsync(SemaphoreHttpConnection client) {
+        SemaphoreCI semaphoreCI = lazy(client);
+        return semaphoreCI.warmUp().thenApply(projects -> semaphoreCI);
+    }
+
+    /**
+     * Requests the projects in the background, unless they have already been received or requested.
+     *
+     * @return Future of the projects mapped by their name.
+     */
+    public CompletableFuture<Map<String, Project>> warmUp() {
+        synchronized (this) {
+            if (projects != null) {
+                return CompletableFuture.completedFuture(projects.byName);
+            }
+            if (loading != null) {
+                return loading.thenApply(index -> index.byName);
+            }
+
+            CompletableFuture<ProjectIndex> future = client.async().getList(rootUrl, Project.class).thenApply(this::bindProjects);
+            loading = future;
+            future.whenComplete((result, exception) -> {
+                synchronized (this) {
+                    if (result != null && projects == null) {
+                        projects = result;
+                    }
+                    loading = null;
+                }
+            });
+            return future.thenApply(index -> index.byName);
+        }
+    }
+
+    /**
+     * Returns all Semaphore projects as map, where project name is used as a key. If the projects are
+     * being requested in the background, waits for them.
      *
      * @return Collection of projects mapped by their name.
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Map<String, Project> getProjects() throws IOException {
-        if (projects == null) {
-            projects = doGetProjects();
-        }
-        return projects;
+        return getProjectIndex().byName;
     }
 
     /**
@@ -56,7 +164,89 @@ public class SemaphoreCI {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Optional<Project> getProject(String name) throws IOException {
-        return getProjects().values().stream().filter(project -> project.getName().equals(name)).findFirst();
+        return Optional.ofNullable(getProjectIndex().byName.get(name));
+    }
+
+    /**
+     * Returns the Semaphore project by its hash ID.
+     *
+     * @param hashId Hash ID of the project to get.
+     * @return Semaphore project with the given hash ID, or empty {@code Optional} if it doesn't exist.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    public Optional<Project> getProjectByHashId(String hashId) throws IOException {
+        return Optional.ofNullable(getProjectIndex().byHashId.get(hashId));
+    }
+
+    /**
+     * Returns the Semaphore project by its hash ID, only if the projects have been loaded already. Unlike
+     * {@link #getProjectByHashId(String)}, it never requests the projects, nor waits for them.
+     *
+     * @param hashId Hash ID of the project to get.
+     * @return Semaphore project with the given hash ID, or empty {@code Optional} if it doesn't exist, or
+     * the projects have not been loaded yet.
+     */
+    public Optional<Project> getLoadedProjectByHashId(String hashId) {
+        ProjectIndex current = projects;
+        return current != null ? Optional.ofNullable(current.byHashId.get(hashId)) : Optional.empty();
+    }
+
+    /**
+     * Returns the Semaphore project by its ID.
+     *
+     * @param id ID of the project to get.
+     * @return Semaphore project with the given ID, or empty {@code Optional} if it doesn't exist.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    public Optional<Project> getProjectById(Long id) throws IOException {
+        return Optional.ofNullable(getProjectIndex().byId.get(id));
+    }
+
+    /**
+     * Returns the indexes of the projects, requesting the projects if needed. If the projects are being
+     * requested in the background, waits for them.
+     *
+     * @return Indexes of the projects.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    private ProjectIndex getProjectIndex() throws IOException {
+        ProjectIndex current = projects;
+        if (current != null) {
+            return current;
+        }
+
+        CompletableFuture<ProjectIndex> pending = loading;
+        if (pending != null) {
+            try {
+                return pending.join();
+            } catch (CompletionException exception) {
+                if (exception.getCause() instanceof IOException) {
+                    throw (IOException) exception.getCause();
+                }
+                throw exception;
+            }
+        }
+
+        current = doGetProjects();
+        projects = current;
+        return current;
+    }
+
+    /**
+     * Loads the tree of the projects eagerly, as described by the given plan, with the requests of each
+     * level of the tree made concurrently.
+     *
+     * @param plan Plan of the tree to load.
+     * @return Collection of projects mapped by their name, with their tree loaded.
+     * @throws IOException If an error occurs during Semaphore API request, or the deadline of the plan
+     *                     has passed.
+     * @see GraphLoader
+     */
+    public Map<String, Project> load(FetchPlan plan) throws IOException {
+        Map<String, Project> projects = getProjects();
+        new GraphLoader(client).hydrate(projects.values(), plan);
+
+        return projects;
     }
 
     /**
@@ -73,17 +263,48 @@ public class SemaphoreCI {
     /**
      * Invokes the Semaphore API in order to collect the projects.
      *
-     * @return Collection of projects mapped by their name.
+     * @return Indexes of the projects.
      * @throws IOException If an error occurs during Semaphore API request.
      */
-    private Map<String, Project> doGetProjects() throws IOException {
-        List<Project> projects = client.getList(rootUrl, Project.class);
+    private ProjectIndex doGetProjects() throws IOException {
+        return bindProjects(client.getList(rootUrl, Project.class));
+    }
+
+    /**
+     * Binds the given projects and their branches to the client of this instance.
+     *
+     * @param projects Received projects.
+     * @return Indexes of the projects.
+     */
+    private ProjectIndex bindProjects(List<Project> projects) {
         projects.forEach(project -> {
             project.setClient(client);
             project.getBranches().forEach(branch -> branch.setClient(client));
         });
 
-        return projects.stream().collect(Collectors.toMap(Project::getName, Function.identity()));
+        return new ProjectIndex(projects);
+    }
+
+    /**
+     * Projects indexed by their name, hash ID and ID. The indexes are built together and replaced
+     * as a whole, so they are always consistent with each other.
+     */
+    private static final class ProjectIndex {
+
+        private final Map<String, Project> byName;
+        private final Map<String, Project> byHashId;
+        private final Map<Long, Project> byId;
+
+        private ProjectIndex(List<Project> projects) {
+            this.byName = Collections.unmodifiableMap(projects.stream().collect(Collectors.toMap(Project::getName, Function.identity())));
+            this.byHashId = new HashMap<>();
+            this.byId = new HashMap<>();
+            for (Project project : projects) {
+                byHashId.put(project.getHashId(), project);
+                byId.put(project.getId(), project);
+            }
+        }
+
     }
 
 }
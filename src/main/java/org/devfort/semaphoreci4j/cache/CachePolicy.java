@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.cache;
+
+import com.google.common.base.Ticker;
+import org.devfort.semaphoreci4j.model.Model;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of the {@link CachingSemaphoreHttpConnection}: how long the responses of each
+ * {@link Endpoint endpoint type} are kept, and how much memory the cache may take.
+ * <p>
+ * Content which reports itself as {@link Model#isFinished() finished}
+ * (e.g. the log of a finished build) can no longer change, so it is kept for the longer
+ * {@link Builder#finishedTtl(long, TimeUnit) finished TTL}, unless caching of its endpoint type is
+ * disabled altogether.
+ *
+ * @author sokolovic
+ */
+public final class CachePolicy {
+
+    private final Map<Endpoint, Long> ttls;
+    private final long finishedTtl;
+    private final long maximumWeight;
+    private final Ticker ticker;
+
+    private CachePolicy(Builder builder) {
+        this.ttls = new EnumMap<>(builder.ttls);
+        this.finishedTtl = builder.finishedTtl;
+        this.maximumWeight = builder.maximumWeight;
+        this.ticker = builder.ticker;
+    }
+
+    /**
+     * Returns the policy with the default settings.
+     *
+     * @return Default cache policy.
+     */
+    public static CachePolicy defaults() {
+        return new Builder().build();
+    }
+
+    /**
+     * Returns the time to live of the given content of the given endpoint type.
+     *
+     * @param endpoint Endpoint type the content was received from.
+     * @param content  Received content.
+     * @return Time to live in nanoseconds, or {@code 0} if the content should not be cached.
+     */
+    long ttlOf(Endpoint endpoint, Object content) {
+        long ttl = ttls.get(endpoint);
+        if (ttl > 0 && content instanceof Model && ((Model) content).isFinished()) {
+            return Math.max(ttl, finishedTtl);
+        }
+        return ttl;
+    }
+
+    long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    Ticker getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Builder of the {@link CachePolicy} instances.
+     */
+    public static class Builder {
+
+        final Map<Endpoint, Long> ttls = new EnumMap<>(Endpoint.class);
+        long finishedTtl = TimeUnit.HOURS.toNanos(1);
+        long maximumWeight = 32 * 1024 * 1024;
+        Ticker ticker = Ticker.systemTicker();
+
+        /**
+         * No-argument constructor.
+         * <p>
+         * Initializes the builder with the default settings.
+         */
+        public Builder() {
+            ttl(Endpoint.PROJECTS, 30, TimeUnit.SECONDS);
+            ttl(Endpoint.BRANCHES, 30, TimeUnit.SECONDS);
+            ttl(Endpoint.WEBHOOKS, 60, TimeUnit.SECONDS);
+            ttl(Endpoint.SERVERS, 60, TimeUnit.SECONDS);
+            ttl(Endpoint.SERVER_STATUS, 5, TimeUnit.SECONDS);
+            ttl(Endpoint.SERVER_HISTORY, 10, TimeUnit.SECONDS);
+            ttl(Endpoint.DEPLOY_INFORMATION, 10, TimeUnit.SECONDS);
+            ttl(Endpoint.DEPLOY_LOG, 10, TimeUnit.SECONDS);
+            ttl(Endpoint.BRANCH_STATUS, 5, TimeUnit.SECONDS);
+            ttl(Endpoint.BRANCH_HISTORY, 10, TimeUnit.SECONDS);
+            ttl(Endpoint.BUILD_INFORMATION, 10, TimeUnit.SECONDS);
+            ttl(Endpoint.BUILD_LOG, 10, TimeUnit.SECONDS);
+            ttl(Endpoint.OTHER, 0, TimeUnit.SECONDS);
+        }
+
+        /**
+         * Sets how long the responses of the given endpoint type are kept.
+         *
+         * @param endpoint Endpoint type.
+         * @param ttl      Time to live, or {@code 0} to not cache the responses of the endpoint type.
+         * @param timeUnit Time unit of the time to live.
+         * @return This builder.
+         */
+        public Builder ttl(Endpoint endpoint, long ttl, TimeUnit timeUnit) {
+            this.ttls.put(endpoint, timeUnit.toNanos(ttl));
+            return this;
+        }
+
+        /**
+         * Sets how long the finished content is kept. Defaults to one hour.
+         *
+         * @param ttl      Time to live of the finished content.
+         * @param timeUnit Time unit of the time to live.
+         * @return This builder.
+         */
+        public Builder finishedTtl(long ttl, TimeUnit timeUnit) {
+            this.finishedTtl = timeUnit.toNanos(ttl);
+            return this;
+        }
+
+        /**
+         * Sets the maximum total weight of the cached content, in bytes. The weight of an entry is
+         * the length of the response body it has been decoded from. Defaults to 32 MB.
+         *
+         * @param maximumWeight Maximum total weight of the cache entries, in bytes.
+         * @return This builder.
+         */
+        public Builder maximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        /**
+         * Sets the time source of the cache expiration. Intended for testing.
+         *
+         * @param ticker Time source.
+         * @return This builder.
+         */
+        public Builder ticker(Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Builds the configured policy.
+         *
+         * @return New {@link CachePolicy} instance.
+         */
+        public CachePolicy build() {
+            return new CachePolicy(this);
+        }
+
+    }
+
+}
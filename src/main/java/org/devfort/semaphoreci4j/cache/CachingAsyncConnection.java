@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.cache;
+
+import org.devfort.semaphoreci4j.client.AsyncSemaphoreHttpConnection;
+import org.devfort.semaphoreci4j.model.Model;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking view of the {@link CachingSemaphoreHttpConnection}.
+ * <p>
+ * The copies of the cached responses are returned as the already completed futures; the others are requested
+ * through the non-blocking view of the wrapped connection, and cached once received. Closing this
+ * view doesn't close the wrapped connection.
+ *
+ * @author sokolovic
+ */
+class CachingAsyncConnection implements AsyncSemaphoreHttpConnection {
+
+    private final CachingSemaphoreHttpConnection cache;
+    private final AsyncSemaphoreHttpConnection delegate;
+
+    /**
+     * Argument constructor.
+     *
+     * @param cache    Caching connection to share the cached responses with.
+     * @param delegate Non-blocking view of the wrapped connection.
+     */
+    CachingAsyncConnection(CachingSemaphoreHttpConnection cache, AsyncSemaphoreHttpConnection delegate) {
+        this.cache = cache;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public <T extends Model> CompletableFuture<T> get(String url, Class<T> cls) {
+        String key = CachingSemaphoreHttpConnection.key("get", url, cls);
+        T cached = cache.lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return delegate.get(url, cls).thenApply(response -> cache.store(key, url, cls, response));
+    }
+
+    @Override
+    public <T extends Model> CompletableFuture<List<T>> getList(String url, Class<T> cls) {
+        String key = CachingSemaphoreHttpConnection.key("list", url, cls);
+        List<T> cached = cache.lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return delegate.getList(url, cls).thenApply(response -> cache.store(key, url, cls, response));
+    }
+
+    @Override
+    public CompletableFuture<String> getRaw(String url) {
+        String key = CachingSemaphoreHttpConnection.key("raw", url, String.class);
+        String cached = cache.lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return delegate.getRaw(url).thenApply(response -> cache.store(key, url, String.class, response));
+    }
+
+    @Override
+    public <T extends Model, D> CompletableFuture<T> post(String url, D data, Class<T> cls) {
+        return delegate.post(url, data, cls).whenComplete((response, failure) -> cache.invalidateProject(url));
+    }
+
+    @Override
+    public <T extends Model, D> CompletableFuture<T> put(String url, D data, Class<T> cls) {
+        return delegate.put(url, data, cls).whenComplete((response, failure) -> cache.invalidateProject(url));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(String url) {
+        return delegate.delete(url).whenComplete((response, failure) -> cache.invalidateProject(url));
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
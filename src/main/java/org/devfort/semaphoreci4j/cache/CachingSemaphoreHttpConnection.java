@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import org.devfort.semaphoreci4j.client.AsyncSemaphoreHttpConnection;
+import org.devfort.semaphoreci4j.client.Page;
+import org.devfort.semaphoreci4j.client.SemaphoreHttpConnection;
+import org.devfort.semaphoreci4j.model.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SemaphoreHttpConnection} which keeps the decoded responses of the wrapped connection in
+ * memory, so that the models reading the same resource again within its time to live don't reach
+ * out to Semaphore API.
+ * <p>
+ * Each response is kept as long as its {@link Endpoint endpoint type} allows, as configured by the
+ * {@link CachePolicy}. The cache is bounded by the estimated total size of the responses, evicting
+ * the least recently used ones first. Any POST, PUT or DELETE request invalidates the cached
+ * responses of the project it was sent to, along with the project list.
+ * <p>
+ * The responses are kept encoded, and each hit decodes a new copy of them, so that the changes made
+ * to the returned models (e.g. their lazily loaded children, or a reconciling refresh) stay with the
+ * caller. One caching connection can thus be shared by several
+ * {@link org.devfort.semaphoreci4j.SemaphoreCI} instances, to start them warm.
+ *
+ * @author sokolovic
+ */
+public class CachingSemaphoreHttpConnection implements SemaphoreHttpConnection {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final SemaphoreHttpConnection delegate;
+    private final CachePolicy policy;
+    private final Cache<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong weight = new AtomicLong();
+
+    /**
+     * Argument constructor.
+     * <p>
+     * Wraps the given connection using the {@link CachePolicy#defaults() default} cache policy.
+     *
+     * @param delegate Connection to cache the responses of.
+     */
+    public CachingSemaphoreHttpConnection(SemaphoreHttpConnection delegate) {
+        this(delegate, CachePolicy.defaults());
+    }
+
+    /**
+     * Argument constructor.
+     *
+     * @param delegate Connection to cache the responses of.
+     * @param policy   Cache policy to apply.
+     */
+    public CachingSemaphoreHttpConnection(SemaphoreHttpConnection delegate, CachePolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.entries = CacheBuilder.newBuilder()
+            .maximumWeight(policy.getMaximumWeight())
+            .weigher((String key, Entry entry) -> entry.weight)
+            .removalListener(this::onRemoval)
+            .build();
+    }
+
+    @Override
+    public <T extends Model> T get(String url, Class<T> cls) throws IOException {
+        String key = key("get", url, cls);
+        T cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return store(key, url, cls, delegate.get(url, cls));
+    }
+
+    @Override
+    public <T extends Model> Page<T> getPage(String url, Class<T> cls, int page) throws IOException {
+        String key = key("page " + page, url, cls);
+        Page<T> cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return store(key, url, cls, delegate.getPage(url, cls, page));
+    }
+
+    @Override
+    public <T extends Model> List<T> getList(String url, Class<T> cls) throws IOException {
+        String key = key("list", url, cls);
+        List<T> cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return store(key, url, cls, delegate.getList(url, cls));
+    }
+
+    @Override
+    public String getRaw(String url) throws IOException {
+        String key = key("raw", url, String.class);
+        String cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return store(key, url, String.class, delegate.getRaw(url));
+    }
+
+    /**
+     * Streams the response straight from the underlying connection; the streamed responses are not
+     * cached, since they are too large to be kept in memory.
+     */
+    @Override
+    public <R> R getStream(String url, StreamHandler<R> handler) throws IOException {
+        return delegate.getStream(url, handler);
+    }
+
+    @Override
+    public <T extends Model, D> T post(String url, D data, Class<T> cls) throws IOException {
+        try {
+            return delegate.post(url, data, cls);
+        } finally {
+            invalidateProject(url);
+        }
+    }
+
+    @Override
+    public <T extends Model, D> T put(String url, D data, Class<T> cls) throws IOException {
+        try {
+            return delegate.put(url, data, cls);
+        } finally {
+            invalidateProject(url);
+        }
+    }
+
+    @Override
+    public boolean delete(String url) throws IOException {
+        try {
+            return delegate.delete(url);
+        } finally {
+            invalidateProject(url);
+        }
+    }
+
+    @Override
+    public AsyncSemaphoreHttpConnection async() {
+        return new CachingAsyncConnection(this, delegate.async());
+    }
+
+    /**
+     * Returns the snapshot of the cache statistics.
+     *
+     * @return Current cache statistics.
+     */
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), entries.size(), weight.get());
+    }
+
+    /**
+     * Discards all the cached responses.
+     */
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    /**
+     * Closes the wrapped connection.
+     *
+     * @throws IOException If an error occurs while closing the wrapped connection.
+     */
+    @Override
+    public void close() throws IOException {
+        entries.invalidateAll();
+        delegate.close();
+    }
+
+    /**
+     * Returns the cache key of the given request.
+     *
+     * @param kind Kind of the request (e.g. {@code get}, {@code list}).
+     * @param url  URL of the request.
+     * @param cls  Class the response is decoded to.
+     * @return Cache key of the request.
+     */
+    static String key(String kind, String url, Class<?> cls) {
+        return kind + " " + cls.getName() + " " + url;
+    }
+
+    /**
+     * Returns a copy of the cached response of the given key, if it has not expired yet.
+     *
+     * @param key Cache key of the request.
+     * @param <V> Type of the cached response.
+     * @return Copy of the cached response, or {@code null} if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    <V> V lookup(String key) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null && entry.expiresAt - policy.getTicker().read() > 0) {
+            try {
+                V content = (V) entry.content.thaw();
+                hits.increment();
+                return content;
+            } catch (IOException exception) {
+                LOGGER.warn("Failed to decode the cached response of {}", key, exception);
+            }
+        }
+        if (entry != null) {
+            entries.asMap().remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the given response, as long as its endpoint type allows.
+     *
+     * @param key      Cache key of the request.
+     * @param url      URL of the request.
+     * @param cls      Class the response, or its elements, have been decoded to.
+     * @param response Decoded response, or the page of it.
+     * @param <V>      Type of the response.
+     * @return The given response.
+     */
+    <V> V store(String key, String url, Class<?> cls, V response) {
+        Object content = response instanceof Page ? ((Page<?>) response).getContent() : response;
+        if (content == null) {
+            return response;
+        }
+        long ttl = policy.ttlOf(Endpoint.of(url), content);
+        if (ttl > 0) {
+            FrozenResponse frozen;
+            try {
+                frozen = FrozenResponse.freeze(response, cls);
+            } catch (IOException exception) {
+                LOGGER.warn("Failed to encode the response of {}", key, exception);
+                return response;
+            }
+            Entry entry = new Entry(frozen, Endpoint.projectOf(url), policy.getTicker().read() + ttl, SizeEstimator.estimate(content));
+            weight.addAndGet(entry.weight);
+            entries.put(key, entry);
+        }
+        return response;
+    }
+
+    /**
+     * Discards the cached responses of the project the given URL belongs to, along with the cached
+     * project list, which embeds the branch statuses of all the projects.
+     *
+     * @param url URL of the modifying request.
+     */
+    void invalidateProject(String url) {
+        String project = Endpoint.projectOf(url);
+        entries.asMap().values().removeIf(entry -> entry.project == null || Objects.equals(entry.project, project));
+        LOGGER.debug("invalidateProject({}), project={}", url, project);
+    }
+
+    private void onRemoval(RemovalNotification<String, Entry> notification) {
+        weight.addAndGet(-notification.getValue().weight);
+        if (notification.wasEvicted()) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Cached response.
+     */
+    private static final class Entry {
+
+        private final FrozenResponse content;
+        private final String project;
+        private final long expiresAt;
+        private final int weight;
+
+        private Entry(FrozenResponse content, String project, long expiresAt, int weight) {
+            this.content = content;
+            this.project = project;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+
+    }
+
+}
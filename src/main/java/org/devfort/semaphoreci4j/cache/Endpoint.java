@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.cache;
+
+import java.net.URI;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Types of the Semaphore API endpoints, as told apart by the cache.
+ *
+ * @author sokolovic
+ */
+public enum Endpoint {
+
+    PROJECTS("/projects"),
+    BRANCHES("/projects/[^/]+/branches"),
+    WEBHOOKS("/projects/[^/]+/hooks(/[^/]+)?"),
+    SERVERS("/projects/[^/]+/servers"),
+    SERVER_STATUS("/projects/[^/]+/servers/[^/]+/status"),
+    SERVER_HISTORY("/projects/[^/]+/servers/[^/]+"),
+    DEPLOY_INFORMATION("/projects/[^/]+/servers/[^/]+/deploys/[^/]+"),
+    DEPLOY_LOG("/projects/[^/]+/servers/[^/]+/deploys/[^/]+/log"),
+    BRANCH_STATUS("/projects/[^/]+/[^/]+/status"),
+    BRANCH_HISTORY("/projects/[^/]+/[^/]+"),
+    BUILD_INFORMATION("/projects/[^/]+/[^/]+/builds/[^/]+"),
+    BUILD_LOG("/projects/[^/]+/[^/]+/builds/[^/]+/log"),
+    OTHER(null);
+
+    private static final Pattern PROJECT = Pattern.compile(".*?/projects/([^/?]+).*");
+
+    private final Pattern pattern;
+
+    Endpoint(String path) {
+        this.pattern = path == null ? null : Pattern.compile(".*" + path);
+    }
+
+    /**
+     * Resolves the type of the endpoint the given URL points to.
+     *
+     * @param url URL of the request.
+     * @return Type of the endpoint, or {@link #OTHER} if the URL is not recognized.
+     */
+    public static Endpoint of(String url) {
+        String path = URI.create(url).getPath();
+        for (Endpoint endpoint : values()) {
+            if (endpoint.pattern != null && endpoint.pattern.matcher(path).matches()) {
+                return endpoint;
+            }
+        }
+        return OTHER;
+    }
+
+    /**
+     * Returns the hash ID of the project the given URL belongs to.
+     *
+     * @param url URL of the request.
+     * @return Hash ID of the project, or {@code null} if the URL is not project specific.
+     */
+    static String projectOf(String url) {
+        Matcher matcher = PROJECT.matcher(URI.create(url).getPath());
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+}
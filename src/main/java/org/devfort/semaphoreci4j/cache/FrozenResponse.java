@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.cache;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.devfort.semaphoreci4j.client.MapperRegistry;
+import org.devfort.semaphoreci4j.client.Page;
+import org.devfort.semaphoreci4j.model.Model;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Cached response, kept encoded so that each cache hit decodes its own copy of the models.
+ * <p>
+ * The models are mutable: they are bound to the client which requested them, load their children
+ * lazily, and get updated in place by a reconciling refresh or a webhook. Handing the same decoded
+ * instance to every caller would leak those changes from one caller into another's cached result.
+ * Only the properties mapped from the API response are encoded, never the lazily loaded state.
+ *
+ * @author sokolovic
+ */
+final class FrozenResponse {
+
+    private static final ObjectMapper MAPPER = MapperRegistry.getDefault().getMapper().copy()
+        .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+
+    private final Object raw;
+    private final byte[] content;
+    private final ObjectReader reader;
+    private final long[] contentLengths;
+    private final int pageNumber;
+    private final int totalPages;
+
+    private FrozenResponse(Object raw, byte[] content, ObjectReader reader, long[] contentLengths, int pageNumber, int totalPages) {
+        this.raw = raw;
+        this.content = content;
+        this.reader = reader;
+        this.contentLengths = contentLengths;
+        this.pageNumber = pageNumber;
+        this.totalPages = totalPages;
+    }
+
+    /**
+     * Encodes the given response. Strings are immutable, so they are kept as they are.
+     *
+     * @param response Decoded response: a model, a page of it, a list of models, or a string.
+     * @param cls      Class the response, or its elements, have been decoded to.
+     * @return Encoded response.
+     * @throws IOException If the response can't be encoded.
+     */
+    static FrozenResponse freeze(Object response, Class<?> cls) throws IOException {
+        if (response instanceof String) {
+            return new FrozenResponse(response, null, null, null, 0, 0);
+        }
+        if (response instanceof Page) {
+            Page<?> page = (Page<?>) response;
+            return new FrozenResponse(null, MAPPER.writeValueAsBytes(page.getContent()), MAPPER.readerFor(cls),
+                new long[]{page.getContent().getContentLength()}, page.getNumber(), page.getTotalPages());
+        }
+        if (response instanceof List) {
+            List<?> elements = (List<?>) response;
+            long[] contentLengths = new long[elements.size()];
+            for (int index = 0; index < elements.size(); index++) {
+                contentLengths[index] = ((Model) elements.get(index)).getContentLength();
+            }
+            JavaType type = MAPPER.getTypeFactory().constructCollectionType(List.class, cls);
+            return new FrozenResponse(null, MAPPER.writeValueAsBytes(response), MAPPER.readerFor(type), contentLengths, 0, 0);
+        }
+        return new FrozenResponse(null, MAPPER.writeValueAsBytes(response), MAPPER.readerFor(cls),
+            new long[]{((Model) response).getContentLength()}, 0, 0);
+    }
+
+    /**
+     * Decodes a new copy of the response.
+     *
+     * @return Copy of the response, of the same kind as the one encoded.
+     * @throws IOException If the response can't be decoded.
+     */
+    Object thaw() throws IOException {
+        if (raw != null) {
+            return raw;
+        }
+
+        Object value = reader.readValue(content);
+        if (value instanceof List) {
+            List<?> elements = (List<?>) value;
+            for (int index = 0; index < elements.size(); index++) {
+                ((Model) elements.get(index)).setContentLength(contentLengths[index]);
+            }
+            return value;
+        }
+
+        Model model = (Model) value;
+        model.setContentLength(contentLengths[0]);
+        return pageNumber > 0 ? new Page<>(model, pageNumber, totalPages) : model;
+    }
+
+}
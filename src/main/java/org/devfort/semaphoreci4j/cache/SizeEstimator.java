@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.cache;
+
+import org.devfort.semaphoreci4j.model.Model;
+
+import java.util.Collection;
+
+/**
+ * Estimates the memory taken by the decoded responses, as the length of the response bodies they
+ * have been decoded from.
+ * <p>
+ * The length is measured by the client while decoding the response (see
+ * {@link Model#getContentLength()}), so the estimation costs nothing on insert. Responses of
+ * unknown length, e.g. decoded by a connection which doesn't measure them, are given a fixed
+ * weight.
+ *
+ * @author sokolovic
+ */
+final class SizeEstimator {
+
+    private static final int UNKNOWN_SIZE = 1024;
+
+    private SizeEstimator() {
+    }
+
+    /**
+     * Estimates the size of the given decoded response.
+     *
+     * @param content Decoded response.
+     * @return Estimated size in bytes.
+     */
+    static int estimate(Object content) {
+        if (content instanceof String) {
+            return ((String) content).length();
+        }
+
+        long length = 0;
+        if (content instanceof Model) {
+            length = ((Model) content).getContentLength();
+        } else if (content instanceof Collection) {
+            for (Object element : (Collection<?>) content) {
+                length += element instanceof Model ? ((Model) element).getContentLength() : 0;
+            }
+        }
+        return length > 0 ? (int) Math.min(Integer.MAX_VALUE, length) : UNKNOWN_SIZE;
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import org.devfort.semaphoreci4j.model.Model;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Adapts the blocking {@link SemaphoreHttpConnection} to the {@link AsyncSemaphoreHttpConnection}
+ * by running its calls on the given executor.
+ * <p>
+ * Used for the connections which have no non-blocking implementation of their own. Closing the
+ * adapter doesn't close the adapted connection.
+ *
+ * @author sokolovic
+ */
+class AsyncConnectionAdapter implements AsyncSemaphoreHttpConnection {
+
+    private final SemaphoreHttpConnection connection;
+    private final Executor executor;
+
+    /**
+     * Argument constructor.
+     *
+     * @param connection Blocking connection to adapt.
+     * @param executor   Executor to run the blocking calls on.
+     */
+    AsyncConnectionAdapter(SemaphoreHttpConnection connection, Executor executor) {
+        this.connection = connection;
+        this.executor = executor;
+    }
+
+    @Override
+    public <T extends Model> CompletableFuture<T> get(String url, Class<T> cls) {
+        return supply(() -> connection.get(url, cls));
+    }
+
+    @Override
+    public <T extends Model> CompletableFuture<List<T>> getList(String url, Class<T> cls) {
+        return supply(() -> connection.getList(url, cls));
+    }
+
+    @Override
+    public CompletableFuture<String> getRaw(String url) {
+        return supply(() -> connection.getRaw(url));
+    }
+
+    @Override
+    public <T extends Model, D> CompletableFuture<T> post(String url, D data, Class<T> cls) {
+        return supply(() -> connection.post(url, data, cls));
+    }
+
+    @Override
+    public <T extends Model, D> CompletableFuture<T> put(String url, D data, Class<T> cls) {
+        return supply(() -> connection.put(url, data, cls));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(String url) {
+        return supply(() -> connection.delete(url));
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private <T> CompletableFuture<T> supply(IOSupplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.get();
+            } catch (IOException exception) {
+                throw new CompletionException(exception);
+            }
+        }, executor);
+    }
+
+    @FunctionalInterface
+    private interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Non-blocking response consumer which feeds the response body to the non-blocking Jackson parser
+ * as it arrives, and collects the parsed tokens.
+ * <p>
+ * The raw bytes are not kept, but the tokens of the whole body are collected into a
+ * {@link TokenBuffer}, so the memory taken is still proportional to the size of the body. Once
+ * received, the collected tokens are mapped to the target type by the caller (see
+ * {@link JsonResponse#read(ObjectReader)}), off the I/O dispatcher thread. The body of an
+ * unsuccessful response is discarded.
+ *
+ * @author sokolovic
+ */
+class JsonResponseConsumer extends AbstractAsyncResponseConsumer<JsonResponseConsumer.JsonResponse> {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final ObjectMapper mapper;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private HttpResponse response;
+    private JsonParser parser;
+    private TokenBuffer tokens;
+    private IOException parseException;
+    private long contentLength;
+
+    /**
+     * Argument constructor.
+     *
+     * @param mapper Mapper to create the parser with.
+     */
+    JsonResponseConsumer(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    protected void onResponseReceived(HttpResponse response) throws IOException {
+        this.response = response;
+        int status = response.getStatusLine().getStatusCode();
+        if (status >= 200 && status < 400) {
+            this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+            this.tokens = new TokenBuffer(mapper, false);
+        }
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+    }
+
+    @Override
+    protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+        int read;
+        while ((read = decoder.read(buffer)) > 0) {
+            contentLength += read;
+            if (parser != null && parseException == null) {
+                ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(buffer.array(), 0, read);
+                drain();
+            }
+            buffer.clear();
+        }
+    }
+
+    @Override
+    protected JsonResponse buildResult(HttpContext context) throws IOException {
+        if (parser != null && parseException == null) {
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).endOfInput();
+            drain();
+        }
+        return new JsonResponse(response, tokens, parseException, contentLength);
+    }
+
+    @Override
+    protected void releaseResources() {
+        if (parser != null) {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // Nothing left to release.
+            }
+        }
+    }
+
+    /**
+     * Moves all the tokens the parser can tell from the input fed so far to the token buffer. A
+     * malformed body is remembered and reported when the response is read, like the blocking
+     * client does.
+     */
+    private void drain() {
+        try {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                tokens.copyCurrentEvent(parser);
+            }
+        } catch (IOException exception) {
+            parseException = exception;
+        }
+    }
+
+    /**
+     * Received response, along with the tokens of its body.
+     */
+    static final class JsonResponse {
+
+        private final HttpResponse response;
+        private final TokenBuffer tokens;
+        private final IOException parseException;
+        private final long contentLength;
+
+        private JsonResponse(HttpResponse response, TokenBuffer tokens, IOException parseException, long contentLength) {
+            this.response = response;
+            this.tokens = tokens;
+            this.parseException = parseException;
+            this.contentLength = contentLength;
+        }
+
+        HttpResponse getResponse() {
+            return response;
+        }
+
+        /**
+         * Maps the body of the response with the given reader.
+         *
+         * @param reader Reader of the target type.
+         * @param <T>    Target type.
+         * @return Mapped body, or {@code null} if the body is empty.
+         * @throws IOException If the body is malformed or cannot be mapped to the target type.
+         */
+        <T> T read(ObjectReader reader) throws IOException {
+            if (parseException != null) {
+                throw parseException;
+            }
+            if (tokens == null || tokens.firstToken() == null) {
+                return null;
+            }
+            try (JsonParser tokenParser = tokens.asParser()) {
+                T value = reader.readValue(tokenParser);
+                ResponseReader.recordLength(value, contentLength);
+                return value;
+            }
+        }
+
+    }
+
+}
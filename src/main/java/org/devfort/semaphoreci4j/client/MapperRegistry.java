@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.CollectionType;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the configured {@link ObjectMapper} and the {@link ObjectReader readers} and
+ * {@link ObjectWriter writers} built from it.
+ * <p>
+ * Readers and writers are immutable and thread-safe, so they are built once per type and then
+ * shared by all the requests. This way the (de)serializers Jackson resolves for a type are
+ * reused, instead of being looked up again for every response.
+ *
+ * @author sokolovic
+ */
+public class MapperRegistry {
+
+    private static final MapperRegistry DEFAULT = new MapperRegistry(defaultMapper());
+
+    private final ObjectMapper mapper;
+    private final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, CollectionType> listTypes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * Argument constructor.
+     *
+     * @param mapper Fully configured mapper; it must not be reconfigured afterwards.
+     */
+    public MapperRegistry(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Returns the registry shared by all the clients, built around the default mapper.
+     *
+     * @return Default registry instance.
+     */
+    public static MapperRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the mapper the readers and writers are built from.
+     *
+     * @return Configured {@link ObjectMapper} instance.
+     */
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Returns the reader for the instances of the given class.
+     *
+     * @param cls Class to read.
+     * @return Reader for the given class.
+     */
+    public ObjectReader readerFor(Class<?> cls) {
+        return readerFor(mapper.getTypeFactory().constructType(cls));
+    }
+
+    /**
+     * Returns the reader for the list of instances of the given class.
+     *
+     * @param cls Class of the list elements.
+     * @return Reader for the list of the given class instances.
+     */
+    public ObjectReader listReaderFor(Class<?> cls) {
+        return readerFor(listTypes.computeIfAbsent(cls, c -> mapper.getTypeFactory().constructCollectionType(List.class, c)));
+    }
+
+    /**
+     * Returns the reader for the given type.
+     *
+     * @param type Type to read.
+     * @return Reader for the given type.
+     */
+    public ObjectReader readerFor(JavaType type) {
+        return readers.computeIfAbsent(type, mapper::readerFor);
+    }
+
+    /**
+     * Returns the writer for the instances of the given class.
+     *
+     * @param cls Class to write.
+     * @return Writer for the given class.
+     */
+    public ObjectWriter writerFor(Class<?> cls) {
+        return writers.computeIfAbsent(cls, mapper::writerFor);
+    }
+
+    /**
+     * Returns the default {@link ObjectMapper mapper} instance.
+     *
+     * @return Default {@link ObjectMapper} mapper instance.
+     */
+    private static ObjectMapper defaultMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        return mapper;
+    }
+
+}
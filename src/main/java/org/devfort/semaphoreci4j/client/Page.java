@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import org.devfort.semaphoreci4j.model.Model;
+
+/**
+ * Single page of the paginated Semaphore API resource.
+ *
+ * @param <T> Type of the page content.
+ * @author sokolovic
+ */
+public class Page<T extends Model> {
+
+    private final T content;
+    private final int number;
+    private final int totalPages;
+
+    /**
+     * Argument constructor.
+     *
+     * @param content    Parsed content of the page.
+     * @param number     Number of the page, starting from 1.
+     * @param totalPages Total number of pages of the resource.
+     */
+    public Page(T content, int number, int totalPages) {
+        this.content = content;
+        this.number = number;
+        this.totalPages = totalPages;
+    }
+
+    /**
+     * Returns the parsed content of the page.
+     *
+     * @return Page content.
+     */
+    public T getContent() {
+        return content;
+    }
+
+    /**
+     * Returns the number of the page, starting from 1.
+     *
+     * @return Page number.
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Returns the total number of pages of the resource.
+     *
+     * @return Total number of pages.
+     */
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    /**
+     * Returns whether there are more pages following this one.
+     *
+     * @return {@code true} if this is not the last page; {@code false} otherwise.
+     */
+    public boolean hasNext() {
+        return number < totalPages;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Pagination information, as sent by Semaphore API within the {@code Pagination} response header.
+ *
+ * @author sokolovic
+ */
+final class Pagination {
+
+    static final String HEADER = "Pagination";
+
+    private final int currentPage;
+    private final int totalPages;
+
+    private Pagination(int currentPage, int totalPages) {
+        this.currentPage = currentPage;
+        this.totalPages = totalPages;
+    }
+
+    /**
+     * Parses the pagination information of the given response.
+     *
+     * @param response Response to parse the pagination header of.
+     * @param mapper   Mapper to parse the header value with.
+     * @return Pagination information, or {@code null} if the response is not paginated.
+     * @throws IOException If the header value cannot be parsed.
+     */
+    static Pagination of(HttpResponse response, ObjectMapper mapper) throws IOException {
+        Header header = response.getFirstHeader(HEADER);
+        if (header == null) {
+            return null;
+        }
+
+        JsonNode pagination = mapper.readTree(header.getValue());
+        return new Pagination(pagination.get("current_page").asInt(), pagination.get("total_pages").asInt());
+    }
+
+    /**
+     * Returns the URI of the given page of the paginated resource.
+     *
+     * @param uri  Authenticated URI of the resource.
+     * @param page Number of the page.
+     * @return URI of the page.
+     */
+    static URI pageUri(URI uri, int page) {
+        return URI.create(uri.toString() + "&page=" + page);
+    }
+
+    int getCurrentPage() {
+        return currentPage;
+    }
+
+    int getTotalPages() {
+        return totalPages;
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiting the rate of the requests sent to Semaphore API.
+ * <p>
+ * The bucket holds up to {@code burst} permits and is refilled at the sustained rate. Each request
+ * takes one permit; when the bucket is empty, the permit is reserved ahead and the caller waits
+ * until it is refilled. The reservations are made in the order of the calls, so the waiting callers
+ * are served in turn instead of failing.
+ * <p>
+ * One limiter is shared by all the requests of the clients configured with it (see
+ * {@link SemaphoreHttpClient.Builder#rateLimiter(RateLimiter)}), and thus by all the models bound
+ * to those clients.
+ *
+ * @author sokolovic
+ */
+public final class RateLimiter {
+
+    private final double permitsPerNano;
+    private final int burst;
+    private double permits;
+    private long lastRefill;
+
+    /**
+     * Argument constructor.
+     * <p>
+     * The bucket is initially full.
+     *
+     * @param permitsPerSecond Sustained rate of the requests.
+     * @param burst            Maximum number of requests sent at once, after a period of inactivity.
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1.");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.permits = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes one permit, waiting until it is available if needed.
+     *
+     * @throws InterruptedIOException If the calling thread has been interrupted while waiting.
+     */
+    public void acquire() throws InterruptedIOException {
+        long wait = reserve();
+        long deadline = System.nanoTime() + wait;
+        // sleep may wake up early, since it rounds the sub-millisecond part of the wait
+        for (; wait > 0; wait = deadline - System.nanoTime()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+            }
+        }
+    }
+
+    /**
+     * Returns the number of permits which can be taken right away.
+     *
+     * @return Number of currently available permits.
+     */
+    public synchronized double getAvailablePermits() {
+        refill(System.nanoTime());
+        return Math.max(0, permits);
+    }
+
+    /**
+     * Returns the time the next caller would have to wait for its permit.
+     *
+     * @param timeUnit Time unit of the result.
+     * @return Wait time, or {@code 0} if a permit is available right away.
+     */
+    public synchronized long getWaitTime(TimeUnit timeUnit) {
+        refill(System.nanoTime());
+        return permits >= 1 ? 0 : timeUnit.convert((long) Math.ceil((1 - permits) / permitsPerNano), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Takes one permit, reserving it ahead if the bucket is empty.
+     *
+     * @return Time to wait for the reserved permit in nanoseconds, or {@code 0} if it is available
+     * right away.
+     */
+    synchronized long reserve() {
+        refill(System.nanoTime());
+        permits -= 1;
+        return permits >= 0 ? 0 : (long) Math.ceil(-permits / permitsPerNano);
+    }
+
+    private void refill(long now) {
+        permits = Math.min(burst, permits + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.http.HttpEntity;
+import org.devfort.semaphoreci4j.model.Model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Decodes the response entities of both blocking and non-blocking clients.
+ *
+ * @author sokolovic
+ */
+final class ResponseReader {
+
+    private ResponseReader() {
+    }
+
+    /**
+     * Decodes the entity content with the given reader, parsing it directly from the content stream.
+     * <p>
+     * The content is never buffered as a whole; the parser pulls it from the connection in small chunks,
+     * while the underlying entity stream takes care of the {@code Content-Length} delimited and chunked
+     * bodies. Closing the stream consumes whatever is left of the entity, so the connection can be reused.
+     * The number of bytes parsed is recorded as the {@link Model#getContentLength() content length} of
+     * the decoded models.
+     *
+     * @param reader Reader of the expected type.
+     * @param entity Response entity to decode.
+     * @param <T>    Type of the decoded value.
+     * @return Decoded value, or {@code null} if the response has no content.
+     * @throws IOException If an error occurs while reading or parsing the content.
+     */
+    static <T> T read(ObjectReader reader, HttpEntity entity) throws IOException {
+        if (entity == null || entity.getContentLength() == 0) {
+            return null;
+        }
+
+        try (InputStream content = entity.getContent(); JsonParser parser = reader.getFactory().createParser(content)) {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            T value = reader.readValue(parser);
+            recordLength(value, parser.getCurrentLocation().getByteOffset());
+            return value;
+        }
+    }
+
+    /**
+     * Records the length of the response body on the models decoded from it. The length of a list
+     * response is split evenly among its elements, so that they add up to the whole body.
+     *
+     * @param value  Decoded value.
+     * @param length Length of the response body in bytes.
+     */
+    static void recordLength(Object value, long length) {
+        if (length <= 0) {
+            return;
+        }
+        if (value instanceof Model) {
+            ((Model) value).setContentLength(length);
+        } else if (value instanceof List && !((List<?>) value).isEmpty()) {
+            List<?> elements = (List<?>) value;
+            long share = length / elements.size();
+            for (int index = 0; index < elements.size(); index++) {
+                if (elements.get(index) instanceof Model) {
+                    ((Model) elements.get(index)).setContentLength(index == 0 ? length - share * (elements.size() - 1) : share);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the page into the content received so far, keeping the total length of their bodies.
+     *
+     * @param result Content received so far.
+     * @param page   Content of the next page.
+     * @param <T>    Type of the content.
+     * @return Merged content.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Model> T merge(T result, T page) {
+        if (page == null) {
+            return result;
+        }
+        long length = result.getContentLength() + page.getContentLength();
+        T merged = (T) result.merge(page);
+        merged.setContentLength(length);
+        return merged;
+    }
+
+}
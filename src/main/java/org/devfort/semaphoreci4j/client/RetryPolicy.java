@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Policy of retrying the requests which failed for a transient reason: a retry-eligible response
+ * status (e.g. {@code 503 Service Unavailable}), or an I/O error such as a connection reset.
+ * <p>
+ * Only the idempotent requests are retried. The delay between the attempts grows exponentially,
+ * randomized by the configured jitter, unless the response tells otherwise through its
+ * {@code Retry-After} header. No retry is attempted once it would end past the maximum elapsed
+ * time of the request.
+ *
+ * @author sokolovic
+ */
+public final class RetryPolicy {
+
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE"));
+
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final double multiplier;
+    private final double jitter;
+    private final long maxElapsedTime;
+    private final Set<Integer> retryableStatuses;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.multiplier = builder.multiplier;
+        this.jitter = builder.jitter;
+        this.maxElapsedTime = builder.maxElapsedTime;
+        this.retryableStatuses = Collections.unmodifiableSet(new HashSet<>(builder.retryableStatuses));
+    }
+
+    /**
+     * Returns the policy with the default settings.
+     *
+     * @return Default retry policy.
+     */
+    public static RetryPolicy defaults() {
+        return new Builder().build();
+    }
+
+    /**
+     * Returns the policy which never retries.
+     *
+     * @return Retry policy with a single attempt.
+     */
+    public static RetryPolicy none() {
+        return new Builder().maxAttempts(1).build();
+    }
+
+    /**
+     * Starts tracking the attempts of the request with the given method.
+     *
+     * @param method HTTP method of the request.
+     * @return Attempts of the request.
+     */
+    Attempts start(String method) {
+        return new Attempts(IDEMPOTENT_METHODS.contains(method));
+    }
+
+    /**
+     * Attempts of a single request. Not thread-safe; each request tracks its own attempts.
+     */
+    final class Attempts {
+
+        private final boolean idempotent;
+        private final long startTime = System.nanoTime();
+        private int attempt = 1;
+
+        private Attempts(boolean idempotent) {
+            this.idempotent = idempotent;
+        }
+
+        /**
+         * Returns the delay before the next attempt, if the given response should be retried.
+         *
+         * @param response Response of the last attempt.
+         * @return Delay in milliseconds, or {@code -1} if the response should be returned as is.
+         */
+        long delayAfter(HttpResponse response) {
+            if (!retryableStatuses.contains(response.getStatusLine().getStatusCode())) {
+                return -1;
+            }
+            long retryAfter = retryAfter(response.getFirstHeader(HttpHeaders.RETRY_AFTER));
+            return next(retryAfter >= 0 ? retryAfter : backoff());
+        }
+
+        /**
+         * Returns the delay before the next attempt, if the request failed with the given exception
+         * should be retried.
+         *
+         * @param exception Failure of the last attempt.
+         * @return Delay in milliseconds, or {@code -1} if the exception should be rethrown.
+         */
+        long delayAfter(IOException exception) {
+            if (!isTransient(exception)) {
+                return -1;
+            }
+            return next(backoff());
+        }
+
+        int getAttempt() {
+            return attempt;
+        }
+
+        private long next(long delay) {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            if (!idempotent || attempt >= maxAttempts || elapsed + delay > maxElapsedTime) {
+                return -1;
+            }
+            attempt++;
+            return delay;
+        }
+
+        private long backoff() {
+            double backoff = Math.min(maxBackoff, initialBackoff * Math.pow(multiplier, attempt - 1));
+            return (long) (backoff * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+        }
+
+    }
+
+    /**
+     * Checks whether the given exception is worth retrying; timeouts and broken connections are,
+     * while unknown hosts, TLS failures and interruptions are not.
+     *
+     * @param exception Failure of the request.
+     * @return {@code true} if the request may succeed when retried.
+     */
+    private static boolean isTransient(IOException exception) {
+        if (exception instanceof SocketTimeoutException || exception instanceof ConnectTimeoutException) {
+            return true;
+        }
+        return !(exception instanceof InterruptedIOException
+            || exception instanceof UnknownHostException
+            || exception instanceof SSLException);
+    }
+
+    /**
+     * Parses the {@code Retry-After} header, given either as the number of seconds or as the date.
+     *
+     * @param header Header to parse.
+     * @return Delay in milliseconds, or {@code -1} if the header is absent or invalid.
+     */
+    private static long retryAfter(Header header) {
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(header.getValue().trim())));
+        } catch (NumberFormatException exception) {
+            Date date = DateUtils.parseDate(header.getValue());
+            return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Builder of the {@link RetryPolicy} instances.
+     */
+    public static class Builder {
+
+        int maxAttempts = 4;
+        long initialBackoff = 500;
+        long maxBackoff = TimeUnit.SECONDS.toMillis(10);
+        double multiplier = 2;
+        double jitter = 0.5;
+        long maxElapsedTime = TimeUnit.SECONDS.toMillis(30);
+        Set<Integer> retryableStatuses = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+
+        /**
+         * Sets the maximum number of attempts of a request, including the first one. Defaults to 4.
+         *
+         * @param maxAttempts Maximum number of attempts.
+         * @return This builder.
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the delay before the first retry, and the maximum delay between the attempts.
+         * Default to 500 milliseconds and 10 seconds.
+         *
+         * @param initialBackoff Delay before the first retry.
+         * @param maxBackoff     Maximum delay between the attempts.
+         * @param timeUnit       Time unit of the delays.
+         * @return This builder.
+         */
+        public Builder backoff(long initialBackoff, long maxBackoff, TimeUnit timeUnit) {
+            this.initialBackoff = timeUnit.toMillis(initialBackoff);
+            this.maxBackoff = timeUnit.toMillis(maxBackoff);
+            return this;
+        }
+
+        /**
+         * Sets the factor the delay grows by after each attempt. Defaults to 2.
+         *
+         * @param multiplier Growth factor of the delay.
+         * @return This builder.
+         */
+        public Builder multiplier(double multiplier) {
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * Sets the randomization of the delay: the delay is reduced by up to the given fraction, so
+         * that the clients failed at once don't retry at once. Defaults to 0.5.
+         *
+         * @param jitter Fraction of the delay to randomize, between 0 and 1.
+         * @return This builder.
+         */
+        public Builder jitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time spent on a request, including all the attempts and the delays between
+         * them. Defaults to 30 seconds.
+         *
+         * @param maxElapsedTime Maximum elapsed time.
+         * @param timeUnit       Time unit of the maximum elapsed time.
+         * @return This builder.
+         */
+        public Builder maxElapsedTime(long maxElapsedTime, TimeUnit timeUnit) {
+            this.maxElapsedTime = timeUnit.toMillis(maxElapsedTime);
+            return this;
+        }
+
+        /**
+         * Sets the response statuses to retry. Default to 429, 502, 503 and 504.
+         *
+         * @param statuses Retry-eligible response statuses.
+         * @return This builder.
+         */
+        public Builder retryOn(Integer... statuses) {
+            this.retryableStatuses = new HashSet<>(Arrays.asList(statuses));
+            return this;
+        }
+
+        /**
+         * Builds the configured policy.
+         *
+         * @return New {@link RetryPolicy} instance.
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.*;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.util.EntityUtils;
+import org.devfort.semaphoreci4j.http.AuthenticatedHttpDelete;
+import org.devfort.semaphoreci4j.http.AuthenticatedHttpGet;
+import org.devfort.semaphoreci4j.http.AuthenticatedHttpPost;
+import org.devfort.semaphoreci4j.http.AuthenticatedHttpPut;
+import org.devfort.semaphoreci4j.model.Model;
+import org.devfort.semaphoreci4j.validation.ResponseValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking Semaphore API client, built on top of the Apache HttpAsyncClient.
+ * <p>
+ * Requests are multiplexed over a small number of I/O dispatcher threads, so the number of requests
+ * in flight is not bound by the number of threads. Requests exceeding the connection pool limits
+ * are queued by the pool without blocking the caller. Failed requests are retried according to the
+ * {@link RetryPolicy} of the builder, with the delays between the attempts scheduled rather than
+ * waited for.
+ *
+ * @author sokolovic
+ */
+public class SemaphoreHttpAsyncClient implements AsyncSemaphoreHttpConnection {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private CloseableHttpAsyncClient client;
+    private String authToken;
+    private ResponseValidator responseValidator;
+    private MapperRegistry mapperRegistry;
+    private RateLimiter rateLimiter;
+    private RetryPolicy retryPolicy;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Argument constructor.
+     * <p>
+     * Initializes the authenticated instance of this HTTP client with the given
+     * authentication token, using the default {@link SemaphoreHttpClient.Builder} settings.
+     *
+     * @param authToken Semaphore CI authentication token.
+     */
+    public SemaphoreHttpAsyncClient(String authToken) {
+        this(new SemaphoreHttpClient.Builder(authToken));
+    }
+
+    /**
+     * Argument constructor.
+     * <p>
+     * Initializes the instance of this client with the settings of the given builder, and starts it.
+     *
+     * @param builder Configured {@link SemaphoreHttpClient.Builder} to be used.
+     */
+    SemaphoreHttpAsyncClient(SemaphoreHttpClient.Builder builder) {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+            .setConnectTimeout(builder.connectTimeout)
+            .setSoTimeout(builder.socketTimeout)
+            .build();
+
+        PoolingNHttpClientConnectionManager connectionManager;
+        try {
+            connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        } catch (IOReactorException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        connectionManager.setMaxTotal(builder.maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(builder.maxConnectionsPerRoute);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(builder.connectTimeout)
+            .setSocketTimeout(builder.socketTimeout)
+            .setConnectionRequestTimeout(builder.connectionRequestTimeout)
+            .build();
+
+        this.client = HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(SemaphoreHttpClient.keepAliveStrategy(builder.keepAlive))
+            .disableConnectionState()
+            .build();
+        this.authToken = builder.authToken;
+        this.responseValidator = new ResponseValidator();
+        this.mapperRegistry = builder.mapperRegistry;
+        this.rateLimiter = builder.rateLimiter;
+        this.retryPolicy = builder.retryPolicy;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("semaphore-async-scheduler-%d")
+            .setDaemon(true)
+            .build());
+
+        this.client.start();
+    }
+
+    @Override
+    public <T extends Model> CompletableFuture<T> get(String url, Class<T> cls) {
+        ObjectReader reader = mapperRegistry.readerFor(cls);
+        HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
+
+        return execute(getRequest, response -> new FirstPage<T>(
+            Pagination.of(response, mapperRegistry.getMapper()),
+            ResponseReader.read(reader, response.getEntity())
+        )).thenCompose(firstPage -> getRemainingPages(url, reader, firstPage));
+    }
+
+    /**
+     * Requests all the pages following the first one at once, and merges them in the page order once
+     * all of them have been received.
+     *
+     * @param url       URL to send the requests to.
+     * @param reader    Reader of the response type.
+     * @param firstPage Response to the initial request.
+     * @param <T>       Type of the response.
+     * @return Future of the instance containing information merged from all the pages.
+     */
+    private <T extends Model> CompletableFuture<T> getRemainingPages(String url, ObjectReader reader, FirstPage<T> firstPage) {
+        Pagination pagination = firstPage.pagination;
+        if (pagination == null || pagination.getTotalPages() <= pagination.getCurrentPage()) {
+            return CompletableFuture.completedFuture(firstPage.value);
+        }
+
+        List<CompletableFuture<T>> pages = new ArrayList<>();
+        for (int page = pagination.getCurrentPage() + 1; page <= pagination.getTotalPages(); page++) {
+            HttpGet pageRequest = new AuthenticatedHttpGet(url, authToken);
+            pageRequest.setURI(Pagination.pageUri(pageRequest.getURI(), page));
+            pages.add(execute(pageRequest, response -> ResponseReader.read(reader, response.getEntity())));
+        }
+
+        return CompletableFuture.allOf(pages.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            T result = firstPage.value;
+            for (CompletableFuture<T> page : pages) {
+                result = ResponseReader.merge(result, page.join());
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public <T extends Model> CompletableFuture<List<T>> getList(String url, Class<T> cls) {
+        ObjectReader reader = mapperRegistry.listReaderFor(cls);
+        HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
+
+        return execute(getRequest, response -> ResponseReader.read(reader, response.getEntity()));
+    }
+
+    @Override
+    public CompletableFuture<String> getRaw(String url) {
+        HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
+
+        return execute(getRequest, response -> EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public <T extends Model, D> CompletableFuture<T> post(String url, D data, Class<T> cls) {
+        HttpPost postRequest = new AuthenticatedHttpPost(url, authToken);
+
+        return withEntity(postRequest, data).thenCompose(request -> execute(request, response -> readNullable(cls, response)));
+    }
+
+    @Override
+    public <T extends Model, D> CompletableFuture<T> put(String url, D data, Class<T> cls) {
+        HttpPut putRequest = new AuthenticatedHttpPut(url, authToken);
+
+        return withEntity(putRequest, data).thenCompose(request -> execute(request, response -> readNullable(cls, response)));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(String url) {
+        HttpDelete deleteRequest = new AuthenticatedHttpDelete(url, authToken);
+
+        return execute(deleteRequest, response -> true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        client.close();
+    }
+
+    /**
+     * Executes the given request, validates the response and maps it with the given handler.
+     * <p>
+     * The handler is invoked on the I/O dispatcher thread once the response has been received, and
+     * the response entity is consumed afterwards. Cancelling the returned future aborts the request.
+     * <p>
+     * If the {@link RateLimiter} is configured and has no permit available, the request is scheduled
+     * to be sent once its reserved permit becomes available, without blocking the caller. A failed
+     * attempt is scheduled to be retried as long as the {@link RetryPolicy} allows.
+     *
+     * @param request Request to execute.
+     * @param handler Handler mapping the validated response.
+     * @param <T>     Type of the mapped response.
+     * @return Future of the mapped response.
+     */
+    private <T> CompletableFuture<T> execute(HttpRequestBase request, ResponseHandler<T> handler) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(request, handler, retryPolicy.start(request.getMethod()), result);
+        return result;
+    }
+
+    /**
+     * Sends the next attempt of the given request, once the {@link RateLimiter} permits.
+     *
+     * @param request  Request to send.
+     * @param handler  Handler mapping the validated response.
+     * @param attempts Attempts of the request so far.
+     * @param result   Future to complete with the mapped response.
+     * @param <T>      Type of the mapped response.
+     */
+    private <T> void attempt(HttpRequestBase request, ResponseHandler<T> handler, RetryPolicy.Attempts attempts, CompletableFuture<T> result) {
+        long wait = rateLimiter != null ? rateLimiter.reserve() : 0;
+        if (wait > 0) {
+            schedule(() -> send(request, handler, attempts, result), wait, result);
+        } else {
+            send(request, handler, attempts, result);
+        }
+    }
+
+    /**
+     * Schedules the given task, failing the result if the client has been closed in the meantime.
+     *
+     * @param task   Task to schedule.
+     * @param delay  Delay in nanoseconds.
+     * @param result Future completed by the task.
+     */
+    private void schedule(Runnable task, long delay, CompletableFuture<?> result) {
+        try {
+            scheduler.schedule(task, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException exception) {
+            result.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Schedules the retry of the given request after the given delay.
+     *
+     * @param request  Request to retry.
+     * @param handler  Handler mapping the validated response.
+     * @param attempts Attempts of the request so far.
+     * @param result   Future to complete with the mapped response.
+     * @param delay    Delay before the retry, in milliseconds.
+     * @param <T>      Type of the mapped response.
+     */
+    private <T> void retry(HttpRequestBase request, ResponseHandler<T> handler, RetryPolicy.Attempts attempts, CompletableFuture<T> result, long delay) {
+        request.reset();
+        schedule(() -> attempt(request, handler, attempts, result), TimeUnit.MILLISECONDS.toNanos(delay), result);
+    }
+
+    /**
+     * Sends the given request, unless the result has already been cancelled.
+     *
+     * @param request  Request to send.
+     * @param handler  Handler mapping the validated response.
+     * @param attempts Attempts of the request so far.
+     * @param result   Future to complete with the mapped response.
+     * @param <T>      Type of the mapped response.
+     */
+    private <T> void send(HttpRequestBase request, ResponseHandler<T> handler, RetryPolicy.Attempts attempts, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+
+        Future<HttpResponse> exchange = client.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                LOGGER.debug("{}({}), responseCode={}, response={}", request.getMethod().toLowerCase(), request.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
+
+                long delay = attempts.delayAfter(response);
+                if (delay >= 0) {
+                    LOGGER.debug("retry({}), attempt={}, responseCode={}, delay={}", request.getURI(), attempts.getAttempt(), response.getStatusLine().getStatusCode(), delay);
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    retry(request, handler, attempts, result, delay);
+                    return;
+                }
+
+                try {
+                    responseValidator.validate(response);
+                    result.complete(handler.handleResponse(response));
+                } catch (IOException | RuntimeException exception) {
+                    result.completeExceptionally(exception);
+                } finally {
+                    EntityUtils.consumeQuietly(response.getEntity());
+                }
+            }
+
+            @Override
+            public void failed(Exception exception) {
+                long delay = exception instanceof IOException ? attempts.delayAfter((IOException) exception) : -1;
+                if (delay >= 0) {
+                    LOGGER.debug("retry({}), attempt={}, exception={}, delay={}", request.getURI(), attempts.getAttempt(), exception.toString(), delay);
+                    retry(request, handler, attempts, result, delay);
+                    return;
+                }
+                result.completeExceptionally(exception);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        result.whenComplete((response, exception) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Sets the JSON representation of the given data as the entity of the given request.
+     *
+     * @param request Request to set the entity of.
+     * @param data    Data to send, or {@code null} for an empty request.
+     * @param <R>     Type of the request.
+     * @return Future of the request with the entity set, failed if the data cannot be serialized.
+     */
+    private <R extends HttpEntityEnclosingRequestBase> CompletableFuture<R> withEntity(R request, Object data) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        try {
+            if (data != null) {
+                String requestData = mapperRegistry.writerFor(data.getClass()).writeValueAsString(data);
+                request.setEntity(new StringEntity(requestData, ContentType.APPLICATION_JSON));
+            }
+            result.complete(request);
+        } catch (IOException exception) {
+            result.completeExceptionally(exception);
+        }
+        return result;
+    }
+
+    private <T extends Model> T readNullable(Class<T> cls, HttpResponse response) throws IOException {
+        if (cls != null) {
+            return ResponseReader.read(mapperRegistry.readerFor(cls), response.getEntity());
+        }
+        return null;
+    }
+
+    /**
+     * Initial page of a (possibly) paginated response.
+     */
+    private static class FirstPage<T> {
+
+        private final Pagination pagination;
+        private final T value;
+
+        FirstPage(Pagination pagination, T value) {
+            this.pagination = pagination;
+            this.value = value;
+        }
+
+    }
+
+}
@@ -17,22 +17,27 @@
 
 package org.devfort.semaphoreci4j.client;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
-import com.fasterxml.jackson.databind.type.TypeFactory;
-import com.google.common.io.ByteStreams;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.codec.CharEncoding;
 import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.protocol.BasicHttpContext;
-import org.apache.http.protocol.HttpContext;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 import org.devfort.semaphoreci4j.http.AuthenticatedHttpDelete;
 import org.devfort.semaphoreci4j.http.AuthenticatedHttpGet;
@@ -45,8 +50,17 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author sokolovic
@@ -56,105 +70,223 @@ public class SemaphoreHttpClient implements SemaphoreHttpConnection {
     private final Logger LOGGER = LoggerFactory.getLogger(getClass());
 
     private CloseableHttpClient client;
-    private HttpContext context;
     private String authToken;
     private ResponseValidator responseValidator;
+    private MapperRegistry mapperRegistry;
+    private ExecutorService paginationExecutor;
+    private ValidatorCache validatorCache;
+    private RetryPolicy retryPolicy;
+    private RateLimiter rateLimiter;
+    private SingleFlight singleFlight;
+    private Builder builder;
+    private volatile SemaphoreHttpAsyncClient asyncClient;
 
     /**
      * Argument constructor.
      * <p>
      * Initializes the authenticated instance of this HTTP client with the given
-     * authentication token.
+     * authentication token, using the default {@link Builder} settings.
      *
      * @param authToken Semaphore CI authentication token.
      */
     public SemaphoreHttpClient(String authToken) {
-        this(HttpClientBuilder.create());
-        this.authToken = authToken;
-        this.responseValidator = new ResponseValidator();
+        this(new Builder(authToken));
     }
 
     /**
      * Argument constructor.
      * <p>
-     * Initializes the instance of this client with the given {@link HttpClientBuilder}.
+     * Initializes the instance of this client with the settings of the given {@link Builder}.
+     * All the requests share a single pooling connection manager, so one instance of this
+     * client can safely be used from multiple threads.
      *
-     * @param builder Configured {@link HttpClientBuilder} to be used.
+     * @param builder Configured {@link Builder} to be used.
      */
-    private SemaphoreHttpClient(HttpClientBuilder builder) {
-        this.client = builder.build();
-        this.context = new BasicHttpContext();
+    private SemaphoreHttpClient(Builder builder) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(builder.maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(builder.maxConnectionsPerRoute);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(builder.connectTimeout)
+            .setSocketTimeout(builder.socketTimeout)
+            .setConnectionRequestTimeout(builder.connectionRequestTimeout)
+            .build();
+
+        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(keepAliveStrategy(builder.keepAlive))
+            .disableConnectionState()
+            // all the retries are done by the RetryPolicy, so that its limits hold
+            .disableAutomaticRetries();
+        if (builder.maxIdleTime > 0) {
+            httpClientBuilder.evictIdleConnections(builder.maxIdleTime, TimeUnit.MILLISECONDS);
+        }
+        if (builder.evictExpiredConnections) {
+            httpClientBuilder.evictExpiredConnections();
+        }
+
+        this.client = httpClientBuilder.build();
+        this.authToken = builder.authToken;
+        this.responseValidator = new ResponseValidator();
+        this.mapperRegistry = builder.mapperRegistry;
+        this.paginationExecutor = Executors.newFixedThreadPool(builder.paginationConcurrency, new ThreadFactoryBuilder()
+            .setNameFormat("semaphore-pagination-%d")
+            .setDaemon(true)
+            .build());
+        this.retryPolicy = builder.retryPolicy;
+        this.rateLimiter = builder.rateLimiter;
+        this.singleFlight = builder.coalesceRequests ? new SingleFlight() : null;
+        this.validatorCache = builder.validatorCacheSize > 0 ? new ValidatorCache(builder.validatorCacheSize) : null;
+        this.builder = builder;
+
+        if (builder.warmUpConnections > 0) {
+            warmUp(connectionManager, builder);
+        }
     }
 
     @Override
     public <T extends Model> T get(String url, Class<T> cls) throws IOException {
         HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
-        HttpResponse response = client.execute(getRequest, context);
 
-        LOGGER.debug("get({}), responseCode={}, response={}", getRequest.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
+        return coalesce("get", cls, getRequest, () -> {
+            Decoded<T> decoded = fetch(getRequest, cls.getName(), response -> objectFromResponse(cls, response));
 
-        try {
-            responseValidator.validate(response);
-            if (response.containsHeader("Pagination")) {
-                return getWithPagination(url, cls, response);
+            if (decoded.pagination != null) {
+                return getWithPagination(url, cls, decoded.content, decoded.pagination);
             }
-            return objectFromResponse(cls, response);
-        } finally {
-            EntityUtils.consume(response.getEntity());
-            releaseConnection(getRequest);
-        }
+            return decoded.content;
+        });
     }
 
     /**
-     * Helper method to be used when the response is paginated. It starts with the current response
-     * that we identified pagination within, and proceeds with subsequent requests until there are
-     * no more pages to process.
+     * Helper method to be used when the response is paginated. It starts with the content of the
+     * first page we identified pagination within, and since that reveals the total number of pages,
+     * requests all the subsequent pages concurrently, using at most
+     * {@link Builder#paginationConcurrency(int)} requests at once.
      *
-     * @param url     URL to send the requests to.
-     * @param cls     Class of the response.
-     * @param current Current request from which we start processing pagination.
-     * @param <T>     Type of the response.
+     * @param url        URL to send the requests to.
+     * @param cls        Class of the response.
+     * @param current    Content of the page from which we start processing pagination.
+     * @param pagination Pagination information of the current page.
+     * @param <T>        Type of the response.
      * @return The parsed instance of the provided class, containing information merged from all
      * the pages. {@link Model#merge(Model)} of the given type is responsible for merging different
-     * pages content into one response.
+     * pages content into one response; the pages are merged in the page order.
      * @throws IOException If an error occurs during the request.
      */
-    private <T extends Model> T getWithPagination(String url, Class<T> cls, HttpResponse current) throws IOException {
-        String rawPagination = current.getFirstHeader("Pagination").getValue();
-        JsonNode pagination = getDefaultMapper().readTree(rawPagination);
+    private <T extends Model> T getWithPagination(String url, Class<T> cls, T current, Pagination pagination) throws IOException {
+        T result = current;
 
-        int totalPages = pagination.get("total_pages").asInt();
-        int nextPage = pagination.get("current_page").asInt() + 1;
+        List<Future<T>> pages = new ArrayList<>();
+        for (int page = pagination.getCurrentPage() + 1; page <= pagination.getTotalPages(); page++) {
+            int pageNumber = page;
+            pages.add(paginationExecutor.submit(() -> getPage(url, cls, pageNumber).getContent()));
+        }
 
-        if (totalPages < nextPage) {
-            return objectFromResponse(cls, current);
+        try {
+            for (Future<T> page : pages) {
+                result = ResponseReader.merge(result, page.get());
+            }
+            return result;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the pages of " + url);
+        } catch (ExecutionException exception) {
+            Throwables.throwIfInstanceOf(exception.getCause(), IOException.class);
+            Throwables.throwIfUnchecked(exception.getCause());
+            throw new IOException(exception.getCause());
+        } finally {
+            pages.forEach(page -> page.cancel(true));
         }
+    }
 
+    @Override
+    public <T extends Model> Page<T> getPage(String url, Class<T> cls, int page) throws IOException {
         HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
-        getRequest.setURI(URI.create(getRequest.getURI().toString() + "&page=" + nextPage));
-        HttpResponse response = client.execute(getRequest, context);
+        if (page > 1) {
+            getRequest.setURI(Pagination.pageUri(getRequest.getURI(), page));
+        }
 
-        LOGGER.debug("get({}), responseCode={}, response={}", getRequest.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
+        return coalesce("page", cls, getRequest, () -> {
+            Decoded<T> decoded = fetch(getRequest, cls.getName(), response -> objectFromResponse(cls, response));
 
-        try {
-            responseValidator.validate(response);
-            return (T) objectFromResponse(cls, current).merge(getWithPagination(url, cls, response));
-        } finally {
-            EntityUtils.consume(response.getEntity());
-            releaseConnection(getRequest);
-        }
+            if (decoded.pagination == null) {
+                return new Page<>(decoded.content, page, page);
+            }
+            return new Page<>(decoded.content, decoded.pagination.getCurrentPage(), decoded.pagination.getTotalPages());
+        });
     }
 
     @Override
     public <T extends Model> List<T> getList(String url, Class<T> cls) throws IOException {
         HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
-        HttpResponse response = client.execute(getRequest, context);
+
+        return coalesce("list", cls, getRequest, () -> fetch(getRequest, "List<" + cls.getName() + ">", response -> objectsFromResponse(cls, response)).content);
+    }
+
+    /**
+     * Makes the given call, sharing it with the concurrent identical calls (i.e. those of the same
+     * kind, to the same authenticated URI and mapped to the same class), unless the coalescing is
+     * disabled through {@link Builder#coalesceRequests(boolean)}.
+     *
+     * @param kind       Kind of the call.
+     * @param cls        Class the response is mapped to.
+     * @param getRequest Request the call sends.
+     * @param call       Call to make.
+     * @param <V>        Type of the call result.
+     * @return Result of the call.
+     * @throws IOException If an error occurs during the request.
+     */
+    private <V> V coalesce(String kind, Class<?> cls, HttpGet getRequest, SingleFlight.Call<V> call) throws IOException {
+        if (singleFlight == null) {
+            return call.call();
+        }
+        return singleFlight.execute(kind + " " + cls.getName() + " " + getRequest.getURI(), call);
+    }
+
+    /**
+     * Executes the given GET request and decodes its response.
+     * <p>
+     * If the validator cache is enabled (see {@link Builder#validatorCache(int)}) and the request
+     * URI has been seen before, the request is made conditional, and on {@code 304 Not Modified}
+     * the previously received body is decoded again, instead of being downloaded.
+     *
+     * @param getRequest Request to execute.
+     * @param type       Type the response is decoded to, telling apart the cached bodies of the URI.
+     * @param decoder    Decoder of the response content.
+     * @param <T>        Type of the response content.
+     * @return Decoded response content, along with its pagination information.
+     * @throws IOException If an error occurs during the request.
+     */
+    private <T> Decoded<T> fetch(HttpGet getRequest, String type, ResponseDecoder<T> decoder) throws IOException {
+        ValidatorCache.Entry cached = validatorCache != null ? validatorCache.prepare(getRequest, type) : null;
+        HttpResponse response = execute(getRequest);
 
         LOGGER.debug("get({}), responseCode={}, response={}", getRequest.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
 
         try {
+            if (ValidatorCache.isNotModified(cached, response)) {
+                EntityUtils.consume(response.getEntity());
+                response.setEntity(cached.getEntity());
+                return new Decoded<>(decoder.decode(response), cached.getPagination());
+            }
             responseValidator.validate(response);
-            return objectsFromResponse(cls, response);
+            Pagination pagination = Pagination.of(response, mapperRegistry.getMapper());
+            if (validatorCache == null) {
+                return new Decoded<>(decoder.decode(response), pagination);
+            }
+
+            // keep the body of a response with validators, to decode it again on 304 Not Modified
+            byte[] body = null;
+            if (ValidatorCache.hasValidators(response) && response.getEntity() != null) {
+                body = EntityUtils.toByteArray(response.getEntity());
+                response.setEntity(new ByteArrayEntity(body));
+            }
+            T content = decoder.decode(response);
+            validatorCache.put(getRequest, type, response, content != null ? body : null, pagination);
+            return new Decoded<>(content, pagination);
         } finally {
             EntityUtils.consume(response.getEntity());
             releaseConnection(getRequest);
@@ -164,15 +296,42 @@ public class SemaphoreHttpClient implements SemaphoreHttpConnection {
     @Override
     public String getRaw(String url) throws IOException {
         HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
-        HttpResponse response = client.execute(getRequest);
 
-        LOGGER.debug("get({}), responseCode={}, response={}", getRequest.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
+        return coalesce("raw", String.class, getRequest, () -> {
+            HttpResponse response = execute(getRequest);
 
+            LOGGER.debug("get({}), responseCode={}, response={}", getRequest.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
+
+            try {
+                responseValidator.validate(response);
+                return IOUtils.toString(response.getEntity().getContent(), CharEncoding.UTF_8);
+            } finally {
+                EntityUtils.consume(response.getEntity());
+                releaseConnection(getRequest);
+            }
+        });
+    }
+
+    @Override
+    public <R> R getStream(String url, StreamHandler<R> handler) throws IOException {
+        HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
+        HttpResponse response = execute(getRequest);
+
+        LOGGER.debug("getStream({}), responseCode={}, response={}", getRequest.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
+
+        boolean handled = false;
         try {
             responseValidator.validate(response);
-            return IOUtils.toString(response.getEntity().getContent(), CharEncoding.UTF_8);
+            try (InputStream content = response.getEntity().getContent()) {
+                R result = handler.handle(content);
+                handled = true;
+                return result;
+            }
         } finally {
-            EntityUtils.consume(response.getEntity());
+            if (!handled) {
+                // don't download the rest of a large response no one is going to read
+                getRequest.abort();
+            }
             releaseConnection(getRequest);
         }
     }
@@ -181,11 +340,11 @@ public class SemaphoreHttpClient implements SemaphoreHttpConnection {
     public <T extends Model, D> T post(String url, D data, Class<T> cls) throws IOException {
         HttpPost postRequest = new AuthenticatedHttpPost(url, authToken);
         if (data != null) {
-            String postData = getDefaultMapper().writeValueAsString(data);
+            String postData = mapperRegistry.writerFor(data.getClass()).writeValueAsString(data);
             StringEntity postDataEntity = new StringEntity(postData, ContentType.APPLICATION_JSON);
             postRequest.setEntity(postDataEntity);
         }
-        HttpResponse response = client.execute(postRequest, context);
+        HttpResponse response = execute(postRequest);
 
         LOGGER.debug("post({}), responseCode={}, response={}", postRequest.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
 
@@ -205,11 +364,11 @@ public class SemaphoreHttpClient implements SemaphoreHttpConnection {
     public <T extends Model, D> T put(String url, D data, Class<T> cls) throws IOException {
         HttpPut putRequest = new AuthenticatedHttpPut(url, authToken);
         if (data != null) {
-            String putData = getDefaultMapper().writeValueAsString(data);
+            String putData = mapperRegistry.writerFor(data.getClass()).writeValueAsString(data);
             StringEntity putDataEntity = new StringEntity(putData, ContentType.APPLICATION_JSON);
             putRequest.setEntity(putDataEntity);
         }
-        HttpResponse response = client.execute(putRequest, context);
+        HttpResponse response = execute(putRequest);
 
         LOGGER.debug("put({}), responseCode={}, response={}", putRequest.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
 
@@ -228,7 +387,7 @@ public class SemaphoreHttpClient implements SemaphoreHttpConnection {
     @Override
     public boolean delete(String url) throws IOException {
         HttpDelete deleteRequest = new AuthenticatedHttpDelete(url, authToken);
-        HttpResponse response = client.execute(deleteRequest, context);
+        HttpResponse response = execute(deleteRequest);
 
         LOGGER.debug("delete({}), responseCode={}, response={}", deleteRequest.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
 
@@ -241,9 +400,31 @@ public class SemaphoreHttpClient implements SemaphoreHttpConnection {
         }
     }
 
+    /**
+     * Returns the non-blocking sibling of this client. It is created on first use, with the same
+     * authentication token and connection settings as this client, and closed along with it.
+     *
+     * @return Non-blocking client sharing the settings of this client.
+     */
+    @Override
+    public AsyncSemaphoreHttpConnection async() {
+        if (asyncClient == null) {
+            synchronized (this) {
+                if (asyncClient == null) {
+                    asyncClient = new SemaphoreHttpAsyncClient(builder);
+                }
+            }
+        }
+        return asyncClient;
+    }
+
     @Override
     public void close() throws IOException {
+        paginationExecutor.shutdownNow();
         client.close();
+        if (asyncClient != null) {
+            asyncClient.close();
+        }
     }
 
     /**
@@ -256,13 +437,8 @@ public class SemaphoreHttpClient implements SemaphoreHttpConnection {
      * @throws IOException If an error occurs during response mapping.
      */
     private <T extends Model> T objectFromResponse(Class<T> cls, HttpResponse response) throws IOException {
-        ObjectMapper mapper = getDefaultMapper();
         try {
-            InputStream content = response.getEntity().getContent();
-            byte[] bytes = ByteStreams.toByteArray(content);
-            T result = mapper.readValue(bytes, cls);
-
-            return result;
+            return ResponseReader.read(mapperRegistry.readerFor(cls), response.getEntity());
         } catch (IOException exception) {
             exception.printStackTrace();
         }
@@ -280,15 +456,8 @@ public class SemaphoreHttpClient implements SemaphoreHttpConnection {
      * @throws IOException If an error occurs during response mapping.
      */
     private <T extends Model> List<T> objectsFromResponse(Class<T> cls, HttpResponse response) throws IOException {
-        ObjectMapper mapper = getDefaultMapper();
         try {
-            TypeFactory typeFactory = mapper.getTypeFactory();
-            CollectionType collectionType = typeFactory.constructCollectionType(List.class, cls);
-
-            InputStream content = response.getEntity().getContent();
-            byte[] bytes = ByteStreams.toByteArray(content);
-
-            return mapper.readValue(bytes, collectionType);
+            return ResponseReader.read(mapperRegistry.listReaderFor(cls), response.getEntity());
         } catch (IOException exception) {
             exception.printStackTrace();
         }
@@ -296,6 +465,49 @@ public class SemaphoreHttpClient implements SemaphoreHttpConnection {
         return null;
     }
 
+    /**
+     * Executes the given request, retrying it as long as the {@link RetryPolicy} allows. Only the
+     * given request is retried, so a failed page of a paginated response doesn't discard the pages
+     * received so far. Each attempt waits for its permit of the {@link RateLimiter}, if configured.
+     *
+     * @param request Request to execute.
+     * @return Response of the last attempt.
+     * @throws IOException If the last attempt failed, or the calling thread has been interrupted.
+     */
+    private HttpResponse execute(HttpRequestBase request) throws IOException {
+        RetryPolicy.Attempts attempts = retryPolicy.start(request.getMethod());
+        while (true) {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+
+            long delay;
+            try {
+                HttpResponse response = client.execute(request);
+                delay = attempts.delayAfter(response);
+                if (delay < 0) {
+                    return response;
+                }
+                LOGGER.debug("retry({}), attempt={}, responseCode={}, delay={}", request.getURI(), attempts.getAttempt(), response.getStatusLine().getStatusCode(), delay);
+                EntityUtils.consume(response.getEntity());
+            } catch (IOException exception) {
+                delay = attempts.delayAfter(exception);
+                if (delay < 0) {
+                    throw exception;
+                }
+                LOGGER.debug("retry({}), attempt={}, exception={}, delay={}", request.getURI(), attempts.getAttempt(), exception.toString(), delay);
+            }
+            releaseConnection(request);
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry " + request.getURI());
+            }
+        }
+    }
+
     /**
      * Releases the connection (i.e. resets internal state of the request) to make it reusable.
      *
@@ -306,14 +518,349 @@ public class SemaphoreHttpClient implements SemaphoreHttpConnection {
     }
 
     /**
-     * Returns the default {@link ObjectMapper mapper} instance.
+     * Creates the keep-alive strategy which honours the {@code Keep-Alive} header sent by the server,
+     * but never keeps the idle connection longer than the given duration.
+     *
+     * @param keepAlive Maximum keep-alive duration in milliseconds.
+     * @return Keep-alive strategy to be used by the connection pool.
+     */
+    static ConnectionKeepAliveStrategy keepAliveStrategy(long keepAlive) {
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+        };
+    }
+
+    /**
+     * Opens the requested number of connections to the Semaphore API host up front and returns
+     * them to the pool, so that the first requests don't have to pay for the TCP and TLS handshake.
+     * <p>
+     * Warm-up is a best effort; failure to pre-connect is logged and otherwise ignored.
      *
-     * @return Default {@link ObjectMapper} mapper instance.
+     * @param connectionManager Connection manager to open the connections within.
+     * @param builder           Builder holding the warm-up settings.
      */
-    private ObjectMapper getDefaultMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private void warmUp(PoolingHttpClientConnectionManager connectionManager, Builder builder) {
+        URI rootUri = URI.create(Model.getRootApiUrl());
+        HttpHost host = new HttpHost(rootUri.getHost(), rootUri.getPort(), rootUri.getScheme());
+        List<HttpClientConnection> connections = new ArrayList<>();
+
+        try {
+            HttpHost target = new HttpHost(host.getHostName(), DefaultSchemePortResolver.INSTANCE.resolve(host), host.getSchemeName());
+            HttpRoute route = new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName()));
+
+            for (int i = 0; i < builder.warmUpConnections; i++) {
+                ConnectionRequest connectionRequest = connectionManager.requestConnection(route, null);
+                HttpClientConnection connection = connectionRequest.get(builder.connectionRequestTimeout, TimeUnit.MILLISECONDS);
+                connections.add(connection);
+
+                if (!connection.isOpen()) {
+                    HttpClientContext context = HttpClientContext.create();
+                    connectionManager.connect(connection, route, builder.connectTimeout, context);
+                    connectionManager.routeComplete(connection, route, context);
+                }
+            }
+            LOGGER.debug("warmUp({}), connections={}", target, connections.size());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | ExecutionException exception) {
+            LOGGER.warn("warmUp({}) failed, opened {} connection(s)", host, connections.size(), exception);
+        } finally {
+            connections.forEach(connection -> connectionManager.releaseConnection(connection, null, builder.keepAlive, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Decoder of the response content.
+     *
+     * @param <T> Type of the decoded content.
+     */
+    @FunctionalInterface
+    private interface ResponseDecoder<T> {
+
+        T decode(HttpResponse response) throws IOException;
+
+    }
+
+    /**
+     * Decoded response content, along with the pagination information of the response.
+     *
+     * @param <T> Type of the decoded content.
+     */
+    private static final class Decoded<T> {
+
+        private final T content;
+        private final Pagination pagination;
+
+        private Decoded(T content, Pagination pagination) {
+            this.content = content;
+            this.pagination = pagination;
+        }
+
+    }
+
+    /**
+     * Builder of the {@link SemaphoreHttpClient} instances.
+     * <p>
+     * Exposes the settings of the underlying connection pool, so that a single client instance can be
+     * tuned to serve many concurrent requests without running out of connections.
+     */
+    public static class Builder {
+
+        final String authToken;
+        int maxConnectionsTotal = 20;
+        int maxConnectionsPerRoute = 20;
+        long keepAlive = TimeUnit.SECONDS.toMillis(30);
+        long maxIdleTime = TimeUnit.SECONDS.toMillis(60);
+        boolean evictExpiredConnections = true;
+        int connectTimeout = (int) TimeUnit.SECONDS.toMillis(10);
+        int socketTimeout = (int) TimeUnit.SECONDS.toMillis(30);
+        int connectionRequestTimeout = (int) TimeUnit.SECONDS.toMillis(10);
+        int warmUpConnections;
+        int paginationConcurrency = 4;
+        MapperRegistry mapperRegistry = MapperRegistry.getDefault();
+        int validatorCacheSize;
+        RetryPolicy retryPolicy = RetryPolicy.defaults();
+        RateLimiter rateLimiter;
+        boolean coalesceRequests = true;
+        Executor asyncExecutor = ForkJoinPool.commonPool();
+
+        /**
+         * Argument constructor.
+         *
+         * @param authToken Semaphore CI authentication token.
+         */
+        public Builder(String authToken) {
+            this.authToken = authToken;
+        }
+
+        /**
+         * Sets the maximum number of connections kept in the pool.
+         *
+         * @param maxConnectionsTotal Maximum number of pooled connections.
+         * @return This builder.
+         */
+        public Builder maxConnectionsTotal(int maxConnectionsTotal) {
+            this.maxConnectionsTotal = maxConnectionsTotal;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of pooled connections per route. Since all the requests are sent to
+         * the Semaphore API host, this is effectively the number of concurrent requests.
+         *
+         * @param maxConnectionsPerRoute Maximum number of pooled connections per route.
+         * @return This builder.
+         */
+        public Builder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * Sets the maximum duration for which an idle connection is kept alive, unless the server
+         * asks for a shorter one.
+         *
+         * @param duration Keep-alive duration.
+         * @param unit     Unit of the duration.
+         * @return This builder.
+         */
+        public Builder keepAlive(long duration, TimeUnit unit) {
+            this.keepAlive = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Sets the idle time after which the pooled connections are evicted by the background thread.
+         * Value of zero disables the eviction of idle connections.
+         *
+         * @param duration Maximum idle time.
+         * @param unit     Unit of the idle time.
+         * @return This builder.
+         */
+        public Builder evictIdleConnections(long duration, TimeUnit unit) {
+            this.maxIdleTime = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Sets whether the pooled connections whose keep-alive has expired are evicted by the
+         * background thread.
+         *
+         * @param evictExpiredConnections {@code true} to evict the expired connections.
+         * @return This builder.
+         */
+        public Builder evictExpiredConnections(boolean evictExpiredConnections) {
+            this.evictExpiredConnections = evictExpiredConnections;
+            return this;
+        }
+
+        /**
+         * Sets the timeout for establishing the connection.
+         *
+         * @param timeout Connect timeout.
+         * @param unit    Unit of the timeout.
+         * @return This builder.
+         */
+        public Builder connectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeout = (int) unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Sets the maximum period of inactivity between two consecutive data packets.
+         *
+         * @param timeout Socket timeout.
+         * @param unit    Unit of the timeout.
+         * @return This builder.
+         */
+        public Builder socketTimeout(long timeout, TimeUnit unit) {
+            this.socketTimeout = (int) unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Sets the timeout for leasing the connection from the pool.
+         *
+         * @param timeout Connection request timeout.
+         * @param unit    Unit of the timeout.
+         * @return This builder.
+         */
+        public Builder connectionRequestTimeout(long timeout, TimeUnit unit) {
+            this.connectionRequestTimeout = (int) unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Sets the number of connections to the Semaphore API host to open when the client is built.
+         *
+         * @param warmUpConnections Number of connections to pre-connect.
+         * @return This builder.
+         */
+        public Builder warmUp(int warmUpConnections) {
+            this.warmUpConnections = warmUpConnections;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of pages of paginated responses requested at once. The limit is
+         * shared by all the paginated requests of the client.
+         *
+         * @param paginationConcurrency Maximum number of concurrent page requests.
+         * @return This builder.
+         */
+        public Builder paginationConcurrency(int paginationConcurrency) {
+            this.paginationConcurrency = paginationConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets the registry of the JSON readers and writers used for mapping the requests and responses.
+         * By default, the registry shared by all the clients is used.
+         *
+         * @param mapperRegistry Registry of JSON readers and writers.
+         * @return This builder.
+         */
+        public Builder mapperRegistry(MapperRegistry mapperRegistry) {
+            this.mapperRegistry = mapperRegistry;
+            return this;
+        }
+
+        /**
+         * Enables the conditional requests for the given number of the most recently requested URLs.
+         * <p>
+         * The {@code ETag} and {@code Last-Modified} validators of the responses are kept along with
+         * the response bodies, and sent back as {@code If-None-Match} and {@code If-Modified-Since}
+         * on the subsequent requests to the same URL. When the server answers with
+         * {@code 304 Not Modified}, the previously received body is decoded again, into a new
+         * instance; the transfer is saved, but not the parsing. Disabled by default.
+         *
+         * @param maxEntries Maximum number of URLs to keep the validators for, or {@code 0} to disable.
+         * @return This builder.
+         */
+        public Builder validatorCache(int maxEntries) {
+            this.validatorCacheSize = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets the policy of retrying the requests failed for a transient reason. By default, the
+         * idempotent requests are retried according to {@link RetryPolicy#defaults()}; use
+         * {@link RetryPolicy#none()} to disable the retries.
+         *
+         * @param retryPolicy Retry policy to apply.
+         * @return This builder.
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the limiter of the request rate. The limiter is shared by the built client and its
+         * {@link #async() non-blocking sibling}, and may be shared by several clients using the same
+         * authentication token as well. By default, the request rate is not limited.
+         *
+         * @param rateLimiter Limiter of the request rate.
+         * @return This builder.
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets whether the concurrent identical GET requests share one request and its decoded
+         * response, instead of each being sent on its own. Enabled by default.
+         *
+         * @param coalesceRequests {@code true} to coalesce the concurrent identical requests.
+         * @return This builder.
+         */
+        public Builder coalesceRequests(boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+            return this;
+        }
+
+        /**
+         * Sets the executor running the blocking calls behind the asynchronous view of the
+         * {@link #buildPipelining() pipelining client}; each call holds one of its threads until it
+         * completes. Defaults to the common fork-join pool.
+         *
+         * @param asyncExecutor Executor of the non-blocking calls.
+         * @return This builder.
+         */
+        public Builder asyncExecutor(Executor asyncExecutor) {
+            this.asyncExecutor = asyncExecutor;
+            return this;
+        }
+
+        /**
+         * Builds the configured client.
+         *
+         * @return New {@link SemaphoreHttpClient} instance.
+         */
+        public SemaphoreHttpClient build() {
+            return new SemaphoreHttpClient(this);
+        }
+
+        /**
+         * Builds the non-blocking client with the configured settings.
+         *
+         * @return New {@link SemaphoreHttpAsyncClient} instance.
+         */
+        public SemaphoreHttpAsyncClient buildAsync() {
+            return new SemaphoreHttpAsyncClient(this);
+        }
+
+        /**
+         * Builds the client pipelining the requests over a handful of connections, with the
+         * configured settings.
+         *
+         * @return New {@link SemaphoreHttpPipeliningClient} instance.
+         */
+        public SemaphoreHttpPipeliningClient buildPipelining() {
+            return new SemaphoreHttpPipeliningClient(this);
+        }
 
-        return mapper;
     }
 }
@@ -19,9 +19,13 @@ package org.devfort.semaphoreci4j.client;
 
 import org.devfort.semaphoreci4j.model.Model;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author sokolovic
@@ -39,6 +43,27 @@ public interface SemaphoreHttpConnection extends Closeable {
      */
     <T extends Model> T get(String url, Class<T> cls) throws IOException;
 
+    /**
+     * Performs the GET request for the single page of the paginated resource, and parses the page
+     * content to the instance of the given class.
+     * <p>
+     * By default, the first page is the whole resource, as returned by {@link #get(String, Class)}.
+     * Implementations aware of the Semaphore API pagination should override this method.
+     *
+     * @param url  URL of the paginated resource.
+     * @param cls  Class of the page content.
+     * @param page Number of the page to get, starting from 1.
+     * @param <T>  Type of the page content.
+     * @return The requested page.
+     * @throws IOException If an error occurs during the request.
+     */
+    default <T extends Model> Page<T> getPage(String url, Class<T> cls, int page) throws IOException {
+        if (page != 1) {
+            throw new IllegalArgumentException("Page " + page + " requested from an unpaginated connection.");
+        }
+        return new Page<>(get(url, cls), 1, 1);
+    }
+
     /**
      * Performs the GET request and parses the response to collection of instances of the given class.
      *
@@ -59,6 +84,25 @@ public interface SemaphoreHttpConnection extends Closeable {
      */
     String getRaw(String url) throws IOException;
 
+    /**
+     * Performs the GET request and passes the response content to the given handler as it is being
+     * received, instead of reading it whole first. The content is closed once the handler returns.
+     * <p>
+     * By default, the response is read whole by {@link #getRaw(String)}. Implementations able to stream
+     * the response should override this method.
+     *
+     * @param url     URL to send the request to.
+     * @param handler Handler consuming the response content.
+     * @param <R>     Type of the handler result.
+     * @return The result of the handler.
+     * @throws IOException If an error occurs during the request, or in the handler.
+     */
+    default <R> R getStream(String url, StreamHandler<R> handler) throws IOException {
+        try (InputStream content = new ByteArrayInputStream(getRaw(url).getBytes(StandardCharsets.UTF_8))) {
+            return handler.handle(content);
+        }
+    }
+
     /**
      * Performs the POST request and parses the response to the instance of the given class.
      *
@@ -94,4 +138,28 @@ public interface SemaphoreHttpConnection extends Closeable {
      */
     boolean delete(String url) throws IOException;
 
+    /**
+     * Returns the non-blocking view of this connection.
+     * <p>
+     * By default, the blocking calls of this connection are run on the common fork-join pool.
+     * Implementations with a non-blocking transport should override this method.
+     *
+     * @return Non-blocking view of this connection.
+     */
+    default AsyncSemaphoreHttpConnection async() {
+        return new AsyncConnectionAdapter(this, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Handler of the streamed response content.
+     *
+     * @param <R> Type of the handler result.
+     */
+    @FunctionalInterface
+    interface StreamHandler<R> {
+
+        R handle(InputStream content) throws IOException;
+
+    }
+
 }
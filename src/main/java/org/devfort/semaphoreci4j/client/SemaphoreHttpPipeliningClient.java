@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.*;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpPipeliningClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.util.EntityUtils;
+import org.devfort.semaphoreci4j.client.JsonResponseConsumer.JsonResponse;
+import org.devfort.semaphoreci4j.http.AuthenticatedHttpDelete;
+import org.devfort.semaphoreci4j.http.AuthenticatedHttpGet;
+import org.devfort.semaphoreci4j.http.AuthenticatedHttpPost;
+import org.devfort.semaphoreci4j.http.AuthenticatedHttpPut;
+import org.devfort.semaphoreci4j.model.Model;
+import org.devfort.semaphoreci4j.validation.ResponseValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Semaphore API client which pipelines the requests over a handful of persistent HTTP/1.1
+ * connections, built on top of the Apache HttpAsyncClient.
+ * <p>
+ * The pages following the first page of a paginated response are sent back to back over at most
+ * {@link Builder#maxConnectionsPerRoute(int)} connections, without waiting for the preceding
+ * responses, so many pages cost a few round trips over a few connections. The response bodies are
+ * tokenized by the non-blocking Jackson parser as they arrive; the tokens of each body are held in
+ * memory until the body is complete, and then mapped on the calling thread.
+ * <p>
+ * This is HTTP/1.1 pipelining, not HTTP/2 multiplexing: the pipelined requests are answered in
+ * order, so a slow response delays the ones behind it on its connection. This client pays off for
+ * the many small requests, such as the pages of long histories, rather than for a few large ones.
+ *
+ * @author sokolovic
+ */
+public class SemaphoreHttpPipeliningClient implements SemaphoreHttpConnection {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private CloseableHttpPipeliningClient client;
+    private String authToken;
+    private ResponseValidator responseValidator;
+    private MapperRegistry mapperRegistry;
+    private RetryPolicy retryPolicy;
+    private RateLimiter rateLimiter;
+    private Executor asyncExecutor;
+    private int maxConnectionsPerRoute;
+
+    /**
+     * Argument constructor.
+     * <p>
+     * Initializes the authenticated instance of this HTTP client with the given
+     * authentication token, using the default {@link SemaphoreHttpClient.Builder} settings.
+     *
+     * @param authToken Semaphore CI authentication token.
+     */
+    public SemaphoreHttpPipeliningClient(String authToken) {
+        this(new SemaphoreHttpClient.Builder(authToken));
+    }
+
+    /**
+     * Argument constructor.
+     * <p>
+     * Initializes the instance of this client with the settings of the given builder, and starts it.
+     *
+     * @param builder Configured {@link SemaphoreHttpClient.Builder} to be used.
+     */
+    SemaphoreHttpPipeliningClient(SemaphoreHttpClient.Builder builder) {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+            .setConnectTimeout(builder.connectTimeout)
+            .setSoTimeout(builder.socketTimeout)
+            .build();
+
+        PoolingNHttpClientConnectionManager connectionManager;
+        try {
+            connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        } catch (IOReactorException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        connectionManager.setMaxTotal(builder.maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(builder.maxConnectionsPerRoute);
+
+        this.client = HttpAsyncClients.createPipelining(connectionManager);
+        this.authToken = builder.authToken;
+        this.responseValidator = new ResponseValidator();
+        this.mapperRegistry = builder.mapperRegistry;
+        this.retryPolicy = builder.retryPolicy;
+        this.rateLimiter = builder.rateLimiter;
+        this.asyncExecutor = builder.asyncExecutor;
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+
+        this.client.start();
+    }
+
+    @Override
+    public <T extends Model> T get(String url, Class<T> cls) throws IOException {
+        HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
+        JsonResponse firstPage = execute(getRequest);
+        T result = firstPage.read(mapperRegistry.readerFor(cls));
+
+        Pagination pagination = Pagination.of(firstPage.getResponse(), mapperRegistry.getMapper());
+        if (pagination == null || pagination.getTotalPages() <= pagination.getCurrentPage()) {
+            return result;
+        }
+
+        List<HttpGet> pageRequests = new ArrayList<>();
+        for (int page = pagination.getCurrentPage() + 1; page <= pagination.getTotalPages(); page++) {
+            HttpGet pageRequest = new AuthenticatedHttpGet(url, authToken);
+            pageRequest.setURI(Pagination.pageUri(pageRequest.getURI(), page));
+            pageRequests.add(pageRequest);
+        }
+        for (JsonResponse page : executePipelined(pageRequests)) {
+            result = ResponseReader.merge(result, page.read(mapperRegistry.readerFor(cls)));
+        }
+        return result;
+    }
+
+    @Override
+    public <T extends Model> Page<T> getPage(String url, Class<T> cls, int page) throws IOException {
+        HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
+        if (page > 1) {
+            getRequest.setURI(Pagination.pageUri(getRequest.getURI(), page));
+        }
+        JsonResponse response = execute(getRequest);
+        T content = response.read(mapperRegistry.readerFor(cls));
+
+        Pagination pagination = Pagination.of(response.getResponse(), mapperRegistry.getMapper());
+        if (pagination == null) {
+            return new Page<>(content, page, page);
+        }
+        return new Page<>(content, pagination.getCurrentPage(), pagination.getTotalPages());
+    }
+
+    @Override
+    public <T extends Model> List<T> getList(String url, Class<T> cls) throws IOException {
+        HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
+
+        return execute(getRequest).read(mapperRegistry.listReaderFor(cls));
+    }
+
+    @Override
+    public String getRaw(String url) throws IOException {
+        HttpGet getRequest = new AuthenticatedHttpGet(url, authToken);
+        HttpResponse response = execute(getRequest, HttpAsyncMethods::createConsumer, Function.identity());
+
+        return EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public <T extends Model, D> T post(String url, D data, Class<T> cls) throws IOException {
+        HttpPost postRequest = new AuthenticatedHttpPost(url, authToken);
+        setEntity(postRequest, data);
+        JsonResponse response = execute(postRequest);
+
+        return cls != null ? response.read(mapperRegistry.readerFor(cls)) : null;
+    }
+
+    @Override
+    public <T extends Model, D> T put(String url, D data, Class<T> cls) throws IOException {
+        HttpPut putRequest = new AuthenticatedHttpPut(url, authToken);
+        setEntity(putRequest, data);
+        JsonResponse response = execute(putRequest);
+
+        return cls != null ? response.read(mapperRegistry.readerFor(cls)) : null;
+    }
+
+    @Override
+    public boolean delete(String url) throws IOException {
+        HttpDelete deleteRequest = new AuthenticatedHttpDelete(url, authToken);
+        execute(deleteRequest, HttpAsyncMethods::createConsumer, Function.identity());
+
+        return true;
+    }
+
+    /**
+     * Returns the asynchronous view of this client, which runs the blocking calls of this client on
+     * the executor set through {@link SemaphoreHttpClient.Builder#asyncExecutor(Executor)}. Each call
+     * holds a thread of the executor until its response is received; for the calls which don't hold
+     * any thread, use {@link SemaphoreHttpAsyncClient} instead.
+     *
+     * @return Asynchronous view of this client.
+     */
+    @Override
+    public AsyncSemaphoreHttpConnection async() {
+        return new AsyncConnectionAdapter(this, asyncExecutor);
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    private JsonResponse execute(HttpRequestBase request) throws IOException {
+        return execute(request, () -> new JsonResponseConsumer(mapperRegistry.getMapper()), JsonResponse::getResponse);
+    }
+
+    /**
+     * Sends the given request on its own, retrying it as long as the {@link RetryPolicy} allows, and
+     * validates the response.
+     *
+     * @param request   Request to send.
+     * @param consumers Supplier of the response consumer, called for each attempt.
+     * @param heads     Function returning the response head of the consumed response.
+     * @param <R>       Type of the consumed response.
+     * @return Consumed response of the last attempt.
+     * @throws IOException If the last attempt failed, or the calling thread has been interrupted.
+     */
+    private <R> R execute(HttpRequestBase request, Supplier<HttpAsyncResponseConsumer<R>> consumers, Function<R, HttpResponse> heads) throws IOException {
+        RetryPolicy.Attempts attempts = retryPolicy.start(request.getMethod());
+        while (true) {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+
+            long delay;
+            try {
+                R result = await(client.execute(HttpAsyncMethods.create(request), consumers.get(), null), request);
+                HttpResponse response = heads.apply(result);
+
+                LOGGER.debug("{}({}), responseCode={}, response={}", request.getMethod().toLowerCase(), request.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
+
+                delay = attempts.delayAfter(response);
+                if (delay < 0) {
+                    responseValidator.validate(response);
+                    return result;
+                }
+            } catch (IOException exception) {
+                delay = attempts.delayAfter(exception);
+                if (delay < 0) {
+                    throw exception;
+                }
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry " + request.getURI());
+            }
+        }
+    }
+
+    /**
+     * Sends the given GET requests pipelined over at most {@code maxConnectionsPerRoute} connections,
+     * and validates the responses. The requests failed for a transient reason, or lost along with
+     * their connection, are then sent again on their own.
+     *
+     * @param requests Requests to send, all to the same host.
+     * @return Responses in the order of the requests.
+     * @throws IOException If any of the requests failed.
+     */
+    private List<JsonResponse> executePipelined(List<HttpGet> requests) throws IOException {
+        HttpHost target = URIUtils.extractHost(requests.get(0).getURI());
+        int batchSize = (requests.size() + maxConnectionsPerRoute - 1) / maxConnectionsPerRoute;
+
+        List<List<HttpGet>> batches = Lists.partition(requests, batchSize);
+        List<Future<List<JsonResponse>>> exchanges = new ArrayList<>();
+        for (List<HttpGet> batch : batches) {
+            List<HttpAsyncRequestProducer> producers = new ArrayList<>();
+            List<JsonResponseConsumer> consumers = new ArrayList<>();
+            for (HttpGet request : batch) {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire();
+                }
+                producers.add(HttpAsyncMethods.create(target, request));
+                consumers.add(new JsonResponseConsumer(mapperRegistry.getMapper()));
+            }
+            exchanges.add(client.execute(target, producers, consumers, null));
+        }
+
+        List<JsonResponse> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < batches.size(); i++) {
+                List<HttpGet> batch = batches.get(i);
+                List<JsonResponse> batchResponses;
+                try {
+                    batchResponses = await(exchanges.get(i), batch.get(0));
+                } catch (InterruptedIOException exception) {
+                    throw exception;
+                } catch (IOException exception) {
+                    LOGGER.debug("pipeline({}), requests={}, exception={}", target, batch.size(), exception.toString());
+                    batchResponses = null;
+                }
+
+                for (int j = 0; j < batch.size(); j++) {
+                    JsonResponse response = batchResponses != null ? batchResponses.get(j) : null;
+                    if (response == null || retryPolicy.start(batch.get(j).getMethod()).delayAfter(response.getResponse()) >= 0) {
+                        response = execute(batch.get(j));
+                    } else {
+                        responseValidator.validate(response.getResponse());
+                    }
+                    responses.add(response);
+                }
+            }
+        } finally {
+            exchanges.forEach(exchange -> exchange.cancel(true));
+        }
+        return responses;
+    }
+
+    private void setEntity(HttpEntityEnclosingRequestBase request, Object data) throws IOException {
+        if (data != null) {
+            String requestData = mapperRegistry.writerFor(data.getClass()).writeValueAsString(data);
+            request.setEntity(new StringEntity(requestData, ContentType.APPLICATION_JSON));
+        }
+    }
+
+    /**
+     * Waits for the given exchange to complete, cancelling it if the calling thread is interrupted.
+     *
+     * @param exchange Exchange to wait for.
+     * @param request  Request of the exchange.
+     * @param <R>      Type of the exchange result.
+     * @return Result of the exchange.
+     * @throws IOException If the exchange failed, or the calling thread has been interrupted.
+     */
+    private static <R> R await(Future<R> exchange, HttpRequestBase request) throws IOException {
+        try {
+            return exchange.get();
+        } catch (InterruptedException exception) {
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request.getURI());
+        } catch (ExecutionException exception) {
+            Throwables.throwIfInstanceOf(exception.getCause(), IOException.class);
+            Throwables.throwIfUnchecked(exception.getCause());
+            throw new ClientProtocolException(exception.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import com.google.common.base.Throwables;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces the concurrent identical calls: while a call with the given key is in flight, the other
+ * callers with the same key don't make their own calls, but wait for the one in flight and share
+ * its result (or its failure).
+ * <p>
+ * Calls are coalesced only while in flight; nothing is kept once the call completes.
+ *
+ * @author sokolovic
+ */
+final class SingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Makes the given call, unless the call with the same key is already in flight, in which case
+     * waits for its result.
+     *
+     * @param key  Key identifying the identical calls.
+     * @param call Call to make.
+     * @param <V>  Type of the call result.
+     * @return Result of the call.
+     * @throws IOException If the call failed, or the calling thread has been interrupted while waiting.
+     */
+    @SuppressWarnings("unchecked")
+    <V> V execute(String key, Call<V> call) throws IOException {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return (V) await(key, existing);
+        }
+
+        try {
+            V result = call.call();
+            flight.complete(result);
+            return result;
+        } catch (IOException | RuntimeException | Error exception) {
+            flight.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static Object await(String key, CompletableFuture<Object> flight) throws IOException {
+        try {
+            return flight.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + key);
+        } catch (ExecutionException exception) {
+            Throwables.throwIfInstanceOf(exception.getCause(), IOException.class);
+            Throwables.throwIfUnchecked(exception.getCause());
+            throw new IOException(exception.getCause());
+        }
+    }
+
+    /**
+     * Call to coalesce.
+     *
+     * @param <V> Type of the call result.
+     */
+    @FunctionalInterface
+    interface Call<V> {
+
+        V call() throws IOException;
+
+    }
+
+}
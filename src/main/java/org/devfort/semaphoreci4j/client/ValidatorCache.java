@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ByteArrayEntity;
+
+/**
+ * Cache of the response validators ({@code ETag} and {@code Last-Modified}) and of the response
+ * bodies received along with them, kept per request URI and the type the body is decoded to.
+ * <p>
+ * Requests to a URI seen before are made conditional; when the server answers with
+ * {@code 304 Not Modified}, the cached body is decoded again instead of being downloaded, so each
+ * caller gets its own instance of the response.
+ * <p>
+ * A {@code 304} thus saves the transfer of the body, but not its parsing. The decoded models are
+ * mutable (they are bound to their client, load their children lazily, and get reconciled in place),
+ * so a decoded instance can't be handed out twice.
+ *
+ * @author sokolovic
+ */
+final class ValidatorCache {
+
+    private final Cache<String, Entry> entries;
+
+    /**
+     * Argument constructor.
+     *
+     * @param maxEntries Maximum number of URIs to keep the validators for; the least recently
+     *                   used ones are evicted first.
+     */
+    ValidatorCache(int maxEntries) {
+        this.entries = CacheBuilder.newBuilder()
+            .maximumSize(maxEntries)
+            .build();
+    }
+
+    /**
+     * Makes the given request conditional, if the validators of its URI are known.
+     *
+     * @param request Request to add the conditional headers to.
+     * @param type    Type the response is decoded to.
+     * @return Cached entry of the request URI, or {@code null} if there is none.
+     */
+    Entry prepare(HttpGet request, String type) {
+        Entry entry = entries.getIfPresent(key(request, type));
+        if (entry != null) {
+            if (entry.etag != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, entry.etag);
+            }
+            if (entry.lastModified != null) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Checks whether the given response carries any validator, so that its body is worth keeping.
+     *
+     * @param response Received response.
+     * @return {@code true} if the response has the {@code ETag} or {@code Last-Modified} header.
+     */
+    static boolean hasValidators(HttpResponse response) {
+        return response.containsHeader(HttpHeaders.ETAG) || response.containsHeader(HttpHeaders.LAST_MODIFIED);
+    }
+
+    /**
+     * Stores the validators of the given response along with its body. Responses without any
+     * validator are not stored.
+     *
+     * @param request    Request the response belongs to.
+     * @param type       Type the response is decoded to.
+     * @param response   Received response.
+     * @param body       Response body, or {@code null} if it has not been kept.
+     * @param pagination Pagination information of the response, if any.
+     */
+    void put(HttpGet request, String type, HttpResponse response, byte[] body, Pagination pagination) {
+        String etag = value(response.getFirstHeader(HttpHeaders.ETAG));
+        String lastModified = value(response.getFirstHeader(HttpHeaders.LAST_MODIFIED));
+        if (body == null || (etag == null && lastModified == null)) {
+            entries.invalidate(key(request, type));
+            return;
+        }
+        entries.put(key(request, type), new Entry(etag, lastModified, body, pagination));
+    }
+
+    /**
+     * Checks whether the given response confirms that the cached entry is still valid.
+     *
+     * @param entry    Cached entry the request was made conditional with.
+     * @param response Received response.
+     * @return {@code true} if the cached content can be used instead of the response body.
+     */
+    static boolean isNotModified(Entry entry, HttpResponse response) {
+        return entry != null && response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED;
+    }
+
+    private static String key(HttpGet request, String type) {
+        return type + " " + request.getURI();
+    }
+
+    private static String value(Header header) {
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * Validators and the body of one URI.
+     */
+    static final class Entry {
+
+        private final String etag;
+        private final String lastModified;
+        private final byte[] body;
+        private final Pagination pagination;
+
+        private Entry(String etag, String lastModified, byte[] body, Pagination pagination) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+            this.pagination = pagination;
+        }
+
+        /**
+         * Returns the cached body, as the entity to decode instead of the empty one of the
+         * {@code 304 Not Modified} response.
+         *
+         * @return Entity of the cached body.
+         */
+        HttpEntity getEntity() {
+            return new ByteArrayEntity(body);
+        }
+
+        Pagination getPagination() {
+            return pagination;
+        }
+
+    }
+
+}
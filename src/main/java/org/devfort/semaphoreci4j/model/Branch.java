@@ -21,7 +21,11 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Project branch.
@@ -40,7 +44,10 @@ public class Branch extends Model {
     @JsonProperty("branch_history_url")
     private String historyUrl;
 
-    private Set<Build> builds;
+    private static final Comparator<Build> NEWEST_FIRST = Comparator.comparing(Build::getNumber).reversed();
+
+    private volatile NumberedHistory<Build> builds;
+    private volatile NumberedHistory<Build> latestBuilds;
 
     /**
      * Returns the branch name.
@@ -79,16 +86,106 @@ public class Branch extends Model {
     }
 
     /**
-     * Returns the branch builds.
+     * Returns the branch builds. The returned set is an unmodifiable snapshot, which a
+     * {@link #refresh()} replaces with a new one, rather than modifying it.
      *
-     * @return Branch builds.
+     * @return Branch builds, sorted by their number.
      * @throws IOException If an error occurs during Semaphore API request.
+     * @see #getBuildHistory()
      */
     public Set<Build> getBuilds() throws IOException {
-        if (builds == null) {
-            builds = doGetBuilds();
+        return getBuildHistory();
+    }
+
+    /**
+     * Returns the branch builds as the history ordered by their number, which also offers the lookup
+     * of a build by its number and the range queries. Like {@link #getBuilds()}, the returned history
+     * is an unmodifiable snapshot.
+     *
+     * @return Branch build history.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    public NumberedHistory<Build> getBuildHistory() throws IOException {
+        NumberedHistory<Build> current = builds;
+        if (current == null) {
+            current = publishIfAbsent(doGetBuilds());
         }
-        return builds;
+        return current;
+    }
+
+    /**
+     * Returns the given number of the latest branch builds. Unless the whole history has been loaded,
+     * only the latest builds are loaded, requesting as few pages of the branch history as possible,
+     * and kept apart from the whole history, which {@link #getBuilds()} still loads in full.
+     *
+     * @param count Number of the latest builds to return.
+     * @return Latest builds, newest first.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    public List<Build> getLatestBuilds(int count) throws IOException {
+        NumberedHistory<Build> current = builds;
+        if (current != null) {
+            return current.latest(count);
+        }
+
+        NumberedHistory<Build> held = latestBuilds;
+        NumberedHistory<Build> window = held;
+        if (window == null || window.size() < count) {
+            try {
+                window = newBuildHistory(newBuildIterator().stream().limit(count).collect(Collectors.toList())).freeze();
+            } catch (UncheckedIOException exception) {
+                throw exception.getCause();
+            }
+            if (window.size() < count) {
+                // fewer than requested means the whole history
+                publishIfAbsent(window);
+            } else {
+                publishWindow(held, window);
+            }
+        }
+        return window.latest(count);
+    }
+
+    /**
+     * Returns the branch builds without blocking the calling thread.
+     *
+     * @return Future of the branch builds.
+     */
+    public CompletableFuture<Set<Build>> getBuildsAsync() {
+        NumberedHistory<Build> current = builds;
+        if (current != null) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return client.async().get(this.historyUrl, BranchHistory.class).thenApply(history -> publishIfAbsent(bindBuilds(history)));
+    }
+
+    /**
+     * Returns the iterator over the branch builds, starting with the latest one. Pages of the branch
+     * history are requested only as the iteration advances, so iterating over the few latest builds
+     * costs a single request. If the branch builds have already been loaded, no request is made.
+     *
+     * @return Iterator over the branch builds, newest first.
+     */
+    public Iterator<Build> buildIterator() {
+        NumberedHistory<Build> current = builds;
+        if (current != null) {
+            return current.descendingIterator();
+        }
+        return newBuildIterator();
+    }
+
+    /**
+     * Returns the lazy stream of the branch builds, starting with the latest one.
+     *
+     * @return Stream of the branch builds, newest first.
+     * @see #buildIterator()
+     */
+    public Stream<Build> streamBuilds() {
+        NumberedHistory<Build> current = builds;
+        if (current != null) {
+            return current.latest(current.size()).stream();
+        }
+        return newBuildIterator().stream();
     }
 
     /**
@@ -99,7 +196,8 @@ public class Branch extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Optional<Build> getBuild(Long number) throws IOException {
-        return getBuilds().stream().filter(build -> Objects.equals(build.getNumber(), number)).findFirst();
+        NumberedHistory<Build> current = getBuildHistory();
+        return Optional.ofNullable(number != null ? current.get(number) : null);
     }
 
     /**
@@ -109,7 +207,11 @@ public class Branch extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Optional<Build> getBranchStatus() throws IOException {
-        return getBuilds().stream().max(Comparator.comparingLong(Build::getNumber));
+        NumberedHistory<Build> window = latestBuilds;
+        if (builds == null && window != null) {
+            return Optional.ofNullable(window.getLatest());
+        }
+        return Optional.ofNullable(getBuildHistory().getLatest());
     }
 
     /**
@@ -123,9 +225,84 @@ public class Branch extends Model {
         refresh();
     }
 
+    /**
+     * Refreshes the branch builds. Once the builds have been loaded, only the pages of the branch
+     * history with the new or still running builds are requested; the first page is always requested.
+     * If only the {@link #getLatestBuilds(int) latest builds} have been loaded, the whole history is
+     * loaded.
+     *
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
     @Override
     public void refresh() throws IOException {
-        builds = doGetBuilds();
+        refresh(RefreshMode.REPLACE);
+    }
+
+    /**
+     * Refreshes the branch builds, the same way as {@link #refresh()} does. When reconciling, the held
+     * builds which are still running are updated in place instead of being replaced, so they keep their
+     * loaded commits and threads, and the history is replaced only if new builds have been added. The
+     * builds which have not been loaded yet stay lazy; if only the latest builds have been loaded, those
+     * are reconciled instead of the whole history.
+     *
+     * @param mode Way of applying the fresh data to the branch.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    @Override
+    public void refresh(RefreshMode mode) throws IOException {
+        NumberedHistory<Build> current = builds;
+        NumberedHistory<Build> window = latestBuilds;
+        if (current != null) {
+            publish(current, sync(current, mode));
+        } else if (mode == RefreshMode.REPLACE) {
+            publishIfAbsent(doGetBuilds());
+        } else if (window != null) {
+            publishWindow(window, sync(window, mode));
+        }
+    }
+
+    /**
+     * Brings the given builds up to date with the branch history.
+     *
+     * @param current Builds to bring up to date.
+     * @param mode    Way of applying the fresh data to the builds.
+     * @return Builds brought up to date.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    private NumberedHistory<Build> sync(NumberedHistory<Build> current, RefreshMode mode) throws IOException {
+        try {
+            return mode == RefreshMode.REPLACE
+                ? current.sync(newBuildIterator(), Build::isFinished)
+                : current.sync(newBuildIterator(), Build::isFinished, (held, fresh) -> {
+                    held.reconcile(fresh);
+                    return held;
+                });
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    /**
+     * Applies the state of the given build, notified out of band (e.g. by a webhook), to the loaded
+     * builds. A held build is updated in place, without any request; for a build which is not held
+     * yet, the builds are refreshed. Nothing is done until the builds, or the latest of them, have been
+     * loaded.
+     *
+     * @param notified Current state of a build of this branch.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    public void update(Build notified) throws IOException {
+        NumberedHistory<Build> current = builds != null ? builds : latestBuilds;
+        if (current == null) {
+            return;
+        }
+
+        Build held = current.get(notified.getNumber());
+        if (held != null) {
+            held.reconcile(notified);
+        } else {
+            refresh(RefreshMode.RECONCILE);
+        }
     }
 
     /**
@@ -134,11 +311,93 @@ public class Branch extends Model {
      * @return Collection of branch builds.
      * @throws IOException If an error occurs during Semaphore API request.
      */
-    private Set<Build> doGetBuilds() throws IOException {
-        BranchHistory history = client.get(this.historyUrl, BranchHistory.class);
-        history.getBuilds().forEach(build -> build.setClient(client));
+    private NumberedHistory<Build> doGetBuilds() throws IOException {
+        return bindBuilds(client.get(this.historyUrl, BranchHistory.class));
+    }
+
+    /**
+     * Binds the builds of the given branch history to the client of this branch. The latest builds
+     * loaded already are kept instead of their fresh instances, updated with their fresh state.
+     *
+     * @param history Branch history.
+     * @return Collection of branch builds.
+     */
+    private NumberedHistory<Build> bindBuilds(BranchHistory history) {
+        NumberedHistory<Build> window = latestBuilds;
+        List<Build> bound = new ArrayList<>();
+        for (Build build : history.getBuilds()) {
+            Build held = window != null ? window.get(build.getNumber()) : null;
+            if (held != null) {
+                held.reconcile(build);
+                bound.add(held);
+            } else {
+                build.setClient(client);
+                bound.add(build);
+            }
+        }
+
+        return newBuildHistory(bound).freeze();
+    }
+
+    /**
+     * Publishes the loaded builds, unless the builds have been published meanwhile (e.g. by another
+     * thread refreshing them), so the newer snapshot is not overwritten. The latest builds are dropped
+     * once the whole history is published.
+     *
+     * @param loaded Loaded builds.
+     * @return Published builds.
+     */
+    private synchronized NumberedHistory<Build> publishIfAbsent(NumberedHistory<Build> loaded) {
+        if (builds == null) {
+            builds = loaded;
+            latestBuilds = null;
+        }
+        return builds;
+    }
+
+    /**
+     * Publishes the builds brought up to date from the given snapshot, unless another snapshot has been
+     * published meanwhile.
+     *
+     * @param current Snapshot the builds have been brought up to date from.
+     * @param synced  Builds brought up to date.
+     */
+    private synchronized void publish(NumberedHistory<Build> current, NumberedHistory<Build> synced) {
+        if (builds == current) {
+            builds = synced;
+        }
+    }
+
+    /**
+     * Publishes the given latest builds, replacing the given ones, unless the latest builds have been
+     * replaced meanwhile, or the whole history has been published.
+     *
+     * @param current Latest builds replaced, or {@code null} if there were none.
+     * @param window  Latest builds to publish.
+     */
+    private synchronized void publishWindow(NumberedHistory<Build> current, NumberedHistory<Build> window) {
+        if (builds == null && latestBuilds == current) {
+            latestBuilds = window;
+        }
+    }
 
-        return history.getBuilds();
+    /**
+     * Creates the history of the given builds, sorted by the build number.
+     *
+     * @param builds Builds of the branch, may be {@code null}.
+     * @return History of the branch builds.
+     */
+    static NumberedHistory<Build> newBuildHistory(Collection<Build> builds) {
+        return new NumberedHistory<>(Build.class, Build::getNumber, builds != null ? builds : Collections.emptyList());
+    }
+
+    /**
+     * Creates the iterator requesting the pages of the branch history.
+     *
+     * @return New iterator over the branch history.
+     */
+    private PagedIterator<BranchHistory, Build> newBuildIterator() {
+        return new PagedIterator<>(client, this.historyUrl, BranchHistory.class, BranchHistory::getBuilds, NEWEST_FIRST);
     }
 
     /**
@@ -171,17 +430,24 @@ public class Branch extends Model {
 class BranchHistory extends Model {
 
     @JsonProperty("builds")
-    private Set<Build> builds;
+    private NumberedHistory<Build> builds = Branch.newBuildHistory(null);
 
-    public Set<Build> getBuilds() {
+    public NumberedHistory<Build> getBuilds() {
         return builds;
     }
 
+    @JsonProperty("builds")
+    private void setBuilds(List<Build> builds) {
+        this.builds = Branch.newBuildHistory(builds);
+    }
+
     @Override
     public Model merge(Model other) {
-        this.builds.addAll(((BranchHistory) other).getBuilds());
+        BranchHistory merged = new BranchHistory();
+        merged.builds = Branch.newBuildHistory(this.builds);
+        merged.builds.addAll(((BranchHistory) other).getBuilds());
 
-        return this;
+        return merged;
     }
 
 }
@@ -21,8 +21,10 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author sokolovic
@@ -38,14 +40,15 @@ public class Build extends Model {
     @JsonProperty("build_number")
     private Long number;
     @JsonProperty("result")
-    private String result;
+    private volatile String result;
     @JsonProperty("started_at")
-    private String startedAt;
+    private volatile String startedAt;
     @JsonProperty("finished_at")
-    private String finishedAt;
+    private volatile String finishedAt;
 
-    private Set<Commit> commits;
-    private Set<BuildThread> threads;
+    private volatile Set<Commit> commits;
+    private volatile Set<BuildThread> threads;
+    private volatile SpillPolicy spillPolicy;
 
     /**
      * Returns the build URL.
@@ -110,6 +113,11 @@ public class Build extends Model {
         return finishedAt;
     }
 
+    @Override
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
     /**
      * Returns the build commits.
      *
@@ -117,10 +125,12 @@ public class Build extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Set<Commit> getCommits() throws IOException {
-        if (commits == null) {
-            commits = doGetCommits();
+        Set<Commit> current = commits;
+        if (current == null) {
+            current = doGetCommits();
+            commits = current;
         }
-        return commits;
+        return current;
     }
 
     /**
@@ -130,10 +140,85 @@ public class Build extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Set<BuildThread> getThreads() throws IOException {
-        if (threads == null) {
-            threads = doGetThreads();
+        Set<BuildThread> current = threads;
+        if (current == null) {
+            current = doGetThreads();
+            threads = current;
         }
-        return threads;
+        return current;
+    }
+
+    /**
+     * Returns the build threads, with the output of their commands longer than the threshold of the given
+     * policy spilled to the disk while the log is being received. Such output is then read through its
+     * memory-mapped {@link Command#getOutputLines() lines}.
+     * <p>
+     * The policy stays with the loaded threads, and a {@link #refresh(RefreshMode) refresh} collects them
+     * the same way again. Once the threads have been loaded, they can't be loaded with another policy.
+     *
+     * @param policy Policy of spilling the command output.
+     * @return Build threads.
+     * @throws IOException           If an error occurs during Semaphore API request, or while spilling the output.
+     * @throws IllegalStateException If the threads have already been loaded without the given policy.
+     */
+    public Set<BuildThread> getThreads(SpillPolicy policy) throws IOException {
+        Set<BuildThread> current = threads;
+        if (current == null) {
+            current = new ThreadCollector(policy, client).collect(this::streamLog);
+            spillPolicy = policy;
+            threads = current;
+        } else if (!Objects.equals(spillPolicy, policy)) {
+            throw new IllegalStateException("Threads of build " + number + " have already been loaded with another spill policy");
+        }
+        return current;
+    }
+
+    /**
+     * Returns the build commits without blocking the calling thread.
+     *
+     * @return Future of the build commits.
+     */
+    public CompletableFuture<Set<Commit>> getCommitsAsync() {
+        Set<Commit> current = commits;
+        if (current != null) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return client.async().get(this.infoUrl, BuildInformation.class).thenApply(buildInformation -> {
+            Set<Commit> loaded = bindCommits(buildInformation);
+            commits = loaded;
+            return loaded;
+        });
+    }
+
+    /**
+     * Returns the build threads without blocking the calling thread.
+     *
+     * @return Future of the build threads.
+     */
+    public CompletableFuture<Set<BuildThread>> getThreadsAsync() {
+        Set<BuildThread> current = threads;
+        if (current != null) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return client.async().get(this.logUrl, BuildLog.class).thenApply(buildLog -> {
+            Set<BuildThread> loaded = bindThreads(buildLog);
+            threads = loaded;
+            return loaded;
+        });
+    }
+
+    /**
+     * Streams the build log to the given visitor as it is being received, instead of loading the
+     * threads with the whole output of their commands, as {@link #getThreads()} does.
+     *
+     * @param visitor Visitor of the log.
+     * @throws IOException If an error occurs during Semaphore API request, or in the visitor.
+     */
+    public void streamLog(LogVisitor visitor) throws IOException {
+        client.getStream(this.logUrl, content -> {
+            new LogParser(content, visitor).parse();
+            return null;
+        });
     }
 
     /**
@@ -149,8 +234,70 @@ public class Build extends Model {
 
     @Override
     public void refresh() throws IOException {
-        commits = doGetCommits();
-        threads = doGetThreads();
+        refresh(RefreshMode.REPLACE);
+    }
+
+    /**
+     * Refreshes the build commits and threads. When reconciling, the state of the build itself (e.g. its
+     * result) is updated in place as well, while the commits and threads which have not been loaded yet
+     * stay lazy. The threads loaded with a {@link SpillPolicy} are collected with the same policy again,
+     * so their output stays off the heap.
+     *
+     * @param mode Way of applying the fresh data to the build.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    @Override
+    public void refresh(RefreshMode mode) throws IOException {
+        SpillPolicy policy = spillPolicy;
+        if (mode == RefreshMode.REPLACE) {
+            commits = doGetCommits();
+            threads = policy != null ? new ThreadCollector(policy, client).collect(this::streamLog) : doGetThreads();
+            return;
+        }
+
+        BuildInformation buildInformation = client.get(this.infoUrl, BuildInformation.class);
+        reconcile(buildInformation.getResult(), buildInformation.getStartedAt(), buildInformation.getFinishedAt());
+        Set<Commit> currentCommits = commits;
+        if (currentCommits != null) {
+            commits = reconcile(currentCommits, buildInformation.getCommits(), Commit::getId, (held, fresh) -> {
+            });
+        }
+        Set<BuildThread> currentThreads = threads;
+        if (currentThreads != null) {
+            Set<BuildThread> freshThreads = policy != null
+                ? new ThreadCollector(policy, client).collect(this::streamLog)
+                : client.get(this.logUrl, BuildLog.class).getThreads();
+            threads = reconcile(currentThreads, freshThreads, BuildThread::getNumber, BuildThread::reconcile);
+        }
+    }
+
+    /**
+     * Updates the state of this build with the fresh state of the same build, e.g. from the next page of
+     * the branch history.
+     *
+     * @param fresh Fresh instance of this build.
+     */
+    void reconcile(Build fresh) {
+        reconcile(fresh.result, fresh.startedAt, fresh.finishedAt);
+    }
+
+    /**
+     * Updates the fields of this build which have changed.
+     *
+     * @param result     Current build result.
+     * @param startedAt  Current timestamp when build started.
+     * @param finishedAt Current timestamp when build finished.
+     */
+    private void reconcile(String result, String startedAt, String finishedAt) {
+        if (!Objects.equals(this.result, result)) {
+            this.result = result;
+        }
+        if (!Objects.equals(this.startedAt, startedAt)) {
+            this.startedAt = startedAt;
+        }
+        if (!Objects.equals(this.finishedAt, finishedAt)) {
+            this.finishedAt = finishedAt;
+        }
     }
 
     /**
@@ -160,10 +307,19 @@ public class Build extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     private Set<Commit> doGetCommits() throws IOException {
-        BuildInformation buildInformation = client.get(this.infoUrl, BuildInformation.class);
+        return bindCommits(client.get(this.infoUrl, BuildInformation.class));
+    }
+
+    /**
+     * Binds the commits of the given build information to the client of this build.
+     *
+     * @param buildInformation Build information.
+     * @return Collection of build commits.
+     */
+    private Set<Commit> bindCommits(BuildInformation buildInformation) {
         buildInformation.getCommits().forEach(commit -> commit.setClient(client));
 
-        return buildInformation.getCommits();
+        return Collections.unmodifiableSet(buildInformation.getCommits());
     }
 
     /**
@@ -173,10 +329,19 @@ public class Build extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     private Set<BuildThread> doGetThreads() throws IOException {
-        BuildLog buildLog = client.get(this.logUrl, BuildLog.class);
+        return bindThreads(client.get(this.logUrl, BuildLog.class));
+    }
+
+    /**
+     * Binds the threads of the given build log to the client of this build.
+     *
+     * @param buildLog Build log.
+     * @return Collection of build threads.
+     */
+    private Set<BuildThread> bindThreads(BuildLog buildLog) {
         buildLog.getThreads().forEach(thread -> thread.setClient(client));
 
-        return buildLog.getThreads();
+        return Collections.unmodifiableSet(buildLog.getThreads());
     }
 
     /**
@@ -208,9 +373,27 @@ public class Build extends Model {
 @JsonIgnoreProperties(ignoreUnknown = true)
 class BuildInformation extends Model {
 
+    @JsonProperty("result")
+    private String result;
+    @JsonProperty("started_at")
+    private String startedAt;
+    @JsonProperty("finished_at")
+    private String finishedAt;
     @JsonProperty("commits")
     private Set<Commit> commits;
 
+    public String getResult() {
+        return result;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
     public Set<Commit> getCommits() {
         return commits;
     }
@@ -230,5 +413,10 @@ class BuildLog extends Model {
         return threads;
     }
 
+    @Override
+    public boolean isFinished() {
+        return threads != null && !threads.isEmpty() && threads.stream().allMatch(BuildThread::isFinished);
+    }
+
 }
 
@@ -3,6 +3,7 @@ package org.devfort.semaphoreci4j.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -16,14 +17,58 @@ public class BuildThread extends Model {
     @JsonProperty("number")
     private int number;
     @JsonProperty("commands")
-    private Set<Command> commands;
+    private volatile Set<Command> commands;
+
+    public BuildThread() {
+    }
+
+    /**
+     * Argument constructor, for the thread streamed without its commands.
+     *
+     * @param number Thread number.
+     */
+    BuildThread(int number) {
+        this.number = number;
+    }
+
+    /**
+     * Argument constructor, for the thread collected from the streamed log.
+     *
+     * @param number   Thread number.
+     * @param commands Thread commands.
+     */
+    BuildThread(int number, Set<Command> commands) {
+        this.number = number;
+        this.commands = commands;
+    }
 
     public int getNumber() {
         return number;
     }
 
     public Set<Command> getCommands() {
-        return commands;
+        Set<Command> current = commands;
+        return current != null ? Collections.unmodifiableSet(current) : null;
+    }
+
+    @Override
+    public boolean isFinished() {
+        Set<Command> current = commands;
+        return current != null && !current.isEmpty() && current.stream().allMatch(command -> command.getFinishTime() != null);
+    }
+
+    /**
+     * Updates the commands of this thread with the fresh state of the same thread. The commands have no
+     * identity of their own, so they are replaced as a whole, and only until the thread has finished. The
+     * fresh thread has to be collected the same way as this one, e.g. with the same {@link SpillPolicy},
+     * since its commands are taken over as they are.
+     *
+     * @param fresh Fresh instance of this thread.
+     */
+    void reconcile(BuildThread fresh) {
+        if (!isFinished()) {
+            commands = fresh.commands;
+        }
     }
 
     @Override
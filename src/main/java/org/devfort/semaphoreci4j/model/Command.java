@@ -1,5 +1,6 @@
 package org.devfort.semaphoreci4j.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -22,6 +23,42 @@ public class Command extends Model {
     @JsonProperty("duration")
     private String duration;
 
+    private CommandOutput spilledOutput;
+    private volatile CommandOutput outputLines;
+
+    public Command() {
+    }
+
+    /**
+     * Argument constructor, for the command streamed without its output.
+     *
+     * @param name       Command name.
+     * @param result     Command result.
+     * @param startTime  Timestamp when command started.
+     * @param finishTime Timestamp when command finished.
+     * @param duration   Command duration.
+     */
+    Command(String name, int result, String startTime, String finishTime, String duration) {
+        this.name = name;
+        this.result = result;
+        this.startTime = startTime;
+        this.finishTime = finishTime;
+        this.duration = duration;
+    }
+
+    /**
+     * Copy constructor, for the command collected from the streamed log along with its output.
+     *
+     * @param command       Command streamed without its output.
+     * @param output        Output of the command held on the heap, if any.
+     * @param spilledOutput Output of the command spilled to the disk, if any.
+     */
+    Command(Command command, String output, CommandOutput spilledOutput) {
+        this(command.name, command.result, command.startTime, command.finishTime, command.duration);
+        this.output = output;
+        this.spilledOutput = spilledOutput;
+    }
+
     public String getName() {
         return name;
     }
@@ -30,8 +67,42 @@ public class Command extends Model {
         return result;
     }
 
+    /**
+     * Returns the command output. The output spilled to the disk (see {@link SpillPolicy}) is read
+     * whole onto the heap on each call, so prefer reading it by lines, using {@link #getOutputLines()}.
+     *
+     * @return Command output.
+     */
     public String getOutput() {
-        return output;
+        return spilledOutput != null ? spilledOutput.toString() : output;
+    }
+
+    /**
+     * Returns the command output split into the indexed lines.
+     *
+     * @return Command output lines, or {@code null} if the command has no output.
+     */
+    @JsonIgnore
+    public CommandOutput getOutputLines() {
+        if (spilledOutput != null) {
+            return spilledOutput;
+        }
+        CommandOutput current = outputLines;
+        if (current == null && output != null) {
+            current = CommandOutput.of(output);
+            outputLines = current;
+        }
+        return current;
+    }
+
+    /**
+     * Checks whether the command output has been spilled to the disk.
+     *
+     * @return {@code true} if the output is memory-mapped from the disk.
+     */
+    @JsonIgnore
+    public boolean isOutputSpilled() {
+        return spilledOutput != null;
     }
 
     public String getStartTime() {
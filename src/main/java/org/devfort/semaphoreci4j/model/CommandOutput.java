@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Output of a command, split into lines (by {@code \n}, with the trailing {@code \r} removed), with
+ * the index of the offsets the lines start at. Any line is thus returned without reading the lines
+ * before it, and the last lines without reading the whole output.
+ * <p>
+ * The output spilled to the disk (see {@link SpillPolicy}) is memory-mapped, so only the pages of the
+ * lines being read are loaded, and they are kept off the heap. The file is deleted as soon as it has
+ * been mapped; its space is released once the output is no longer referenced. Instances are immutable,
+ * and may be shared among threads.
+ *
+ * @author sokolovic
+ */
+public final class CommandOutput {
+
+    private final ByteBuffer content;
+    private final int[] lineStarts;
+    private final int lineCount;
+
+    private CommandOutput(ByteBuffer content, int[] lineStarts, int lineCount) {
+        this.content = content;
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Creates the output held on the heap, e.g. the one below the spill threshold.
+     *
+     * @param output Output of the command.
+     * @return Indexed output.
+     */
+    static CommandOutput of(String output) {
+        byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+        LineIndex index = new LineIndex();
+        try {
+            index.scan(bytes, 0, bytes.length);
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+        return index.build(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Returns the number of the lines.
+     *
+     * @return Number of the lines.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Returns the size of the output.
+     *
+     * @return Size of the output in bytes, encoded in UTF-8.
+     */
+    public long getSize() {
+        return content.limit();
+    }
+
+    /**
+     * Returns the given line.
+     *
+     * @param line Number of the line, starting from 0.
+     * @return Line, without its line terminator.
+     * @throws IndexOutOfBoundsException If there is no such line.
+     */
+    public String getLine(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Line " + line + " of " + lineCount);
+        }
+        int start = lineStarts[line];
+        int end = line + 1 < lineCount ? lineStarts[line + 1] : content.limit();
+        if (end > start && content.get(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && content.get(end - 1) == '\r') {
+            end--;
+        }
+        return decode(start, end);
+    }
+
+    /**
+     * Returns the lines within the given range.
+     *
+     * @param from Number of the first line, inclusive.
+     * @param to   Number of the last line, exclusive.
+     * @return Lines within the range.
+     * @throws IndexOutOfBoundsException If the range is out of the output.
+     */
+    public List<String> lines(int from, int to) {
+        if (from < 0 || to > lineCount || from > to) {
+            throw new IndexOutOfBoundsException("Lines " + from + " to " + to + " of " + lineCount);
+        }
+        List<String> lines = new ArrayList<>(to - from);
+        for (int line = from; line < to; line++) {
+            lines.add(getLine(line));
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the given number of the last lines.
+     *
+     * @param count Number of the lines.
+     * @return Last lines, or all of them if there are fewer.
+     */
+    public List<String> tail(int count) {
+        return lines(Math.max(0, lineCount - count), lineCount);
+    }
+
+    /**
+     * Returns the whole output. Reads the whole output onto the heap, so prefer reading it by lines.
+     *
+     * @return Whole output.
+     */
+    @Override
+    public String toString() {
+        return decode(0, content.limit());
+    }
+
+    private String decode(int start, int end) {
+        ByteBuffer range = content.duplicate();
+        range.limit(end).position(start);
+        return StandardCharsets.UTF_8.decode(range).toString();
+    }
+
+    /**
+     * Output being spilled to a file, while the log is being received.
+     */
+    static final class Spill implements Closeable {
+
+        private final Path file;
+        private final LineIndex index = new LineIndex();
+        private final Writer writer;
+
+        /**
+         * Argument constructor.
+         *
+         * @param directory Directory to create the file in.
+         * @param head      Output received before it has exceeded the spill threshold.
+         * @throws IOException If the file can't be created or written.
+         */
+        Spill(Path directory, CharSequence head) throws IOException {
+            this.file = Files.createTempFile(directory, "semaphore-output-", ".log");
+            this.writer = new OutputStreamWriter(new IndexingOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), index),
+                StandardCharsets.UTF_8);
+            this.writer.append(head);
+        }
+
+        void write(char[] chars, int offset, int length) throws IOException {
+            writer.write(chars, offset, length);
+        }
+
+        /**
+         * Completes the file, and maps it to the memory.
+         *
+         * @return Output mapped from the file.
+         * @throws IOException If the file can't be written or mapped.
+         */
+        CommandOutput finish() throws IOException {
+            try {
+                writer.close();
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    return index.build(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                }
+            } finally {
+                delete();
+            }
+        }
+
+        /**
+         * Discards the output, e.g. when the log can't be received whole.
+         */
+        @Override
+        public void close() {
+            try {
+                writer.close();
+            } catch (IOException exception) {
+                // the file is deleted anyway
+            }
+            delete();
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException exception) {
+                // e.g. a mapped file can't be deleted on Windows
+                file.toFile().deleteOnExit();
+            }
+        }
+
+    }
+
+    /**
+     * Stream indexing the line starts of the bytes written through it.
+     */
+    private static final class IndexingOutputStream extends FilterOutputStream {
+
+        private final LineIndex index;
+
+        IndexingOutputStream(OutputStream out, LineIndex index) {
+            super(out);
+            this.index = index;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            index.scan(new byte[]{(byte) b}, 0, 1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            index.scan(bytes, offset, length);
+            out.write(bytes, offset, length);
+        }
+
+    }
+
+    /**
+     * Index of the line starts, built while the output is being written.
+     */
+    private static final class LineIndex {
+
+        private int[] lineStarts = new int[16];
+        private int lineCount;
+        private int position;
+        private boolean lineStart = true;
+
+        void scan(byte[] bytes, int offset, int length) throws IOException {
+            if (length > Integer.MAX_VALUE - position) {
+                throw new IOException("Command output exceeds the maximum size of " + Integer.MAX_VALUE + " bytes");
+            }
+            for (int i = offset; i < offset + length; i++) {
+                if (lineStart) {
+                    if (lineCount == lineStarts.length) {
+                        lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+                    }
+                    lineStarts[lineCount++] = position + i - offset;
+                    lineStart = false;
+                }
+                if (bytes[i] == '\n') {
+                    lineStart = true;
+                }
+            }
+            position += length;
+        }
+
+        CommandOutput build(ByteBuffer content) {
+            return new CommandOutput(content, Arrays.copyOf(lineStarts, lineCount), lineCount);
+        }
+
+    }
+
+}
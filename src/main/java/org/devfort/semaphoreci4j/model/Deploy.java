@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -17,15 +18,15 @@ public class Deploy extends Model {
     @JsonProperty("number")
     private Long number;
     @JsonProperty("result")
-    private String result;
+    private volatile String result;
     @JsonProperty("created_at")
     private String createdAt;
     @JsonProperty("updated_at")
-    private String updatedAt;
+    private volatile String updatedAt;
     @JsonProperty("started_at")
-    private String startedAt;
+    private volatile String startedAt;
     @JsonProperty("finished_at")
-    private String finishedAt;
+    private volatile String finishedAt;
     @JsonProperty("html_url")
     private String htmlUrl;
     @JsonProperty("deploy_url")
@@ -33,7 +34,8 @@ public class Deploy extends Model {
     @JsonProperty("deploy_log_url")
     private String logUrl;
 
-    private Set<BuildThread> threads;
+    private volatile Set<BuildThread> threads;
+    private volatile SpillPolicy spillPolicy;
 
     /**
      * Returns the deploy number.
@@ -89,6 +91,32 @@ public class Deploy extends Model {
         return finishedAt;
     }
 
+    @Override
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    /**
+     * Updates the state of this deploy with the fresh state of the same deploy, e.g. notified by a
+     * webhook.
+     *
+     * @param fresh Fresh instance of this deploy.
+     */
+    void reconcile(Deploy fresh) {
+        if (!Objects.equals(result, fresh.result)) {
+            result = fresh.result;
+        }
+        if (fresh.updatedAt != null && !Objects.equals(updatedAt, fresh.updatedAt)) {
+            updatedAt = fresh.updatedAt;
+        }
+        if (!Objects.equals(startedAt, fresh.startedAt)) {
+            startedAt = fresh.startedAt;
+        }
+        if (!Objects.equals(finishedAt, fresh.finishedAt)) {
+            finishedAt = fresh.finishedAt;
+        }
+    }
+
     /**
      * Returns the deploy's HTML status URL.
      *
@@ -123,10 +151,49 @@ public class Deploy extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Set<BuildThread> getThreads() throws IOException {
-        if (threads == null) {
-            threads = doGetThreads();
+        Set<BuildThread> current = threads;
+        if (current == null) {
+            current = doGetThreads();
+            threads = current;
         }
-        return threads;
+        return current;
+    }
+
+    /**
+     * Returns the deploy threads, with the output of their commands longer than the threshold of the given
+     * policy spilled to the disk while the log is being received. Such output is then read through its
+     * memory-mapped {@link Command#getOutputLines() lines}. Once the threads have been loaded, they can't
+     * be loaded with another policy.
+     *
+     * @param policy Policy of spilling the command output.
+     * @return Deploy threads.
+     * @throws IOException           If an error occurs during Semaphore API request, or while spilling the output.
+     * @throws IllegalStateException If the threads have already been loaded without the given policy.
+     */
+    public Set<BuildThread> getThreads(SpillPolicy policy) throws IOException {
+        Set<BuildThread> current = threads;
+        if (current == null) {
+            current = new ThreadCollector(policy, client).collect(this::streamLog);
+            spillPolicy = policy;
+            threads = current;
+        } else if (!Objects.equals(spillPolicy, policy)) {
+            throw new IllegalStateException("Threads of deploy " + number + " have already been loaded with another spill policy");
+        }
+        return current;
+    }
+
+    /**
+     * Streams the deploy log to the given visitor as it is being received, instead of loading the
+     * threads with the whole output of their commands, as {@link #getThreads()} does.
+     *
+     * @param visitor Visitor of the log.
+     * @throws IOException If an error occurs during Semaphore API request, or in the visitor.
+     */
+    public void streamLog(LogVisitor visitor) throws IOException {
+        client.getStream(this.logUrl, content -> {
+            new LogParser(content, visitor).parse();
+            return null;
+        });
     }
 
     /**
@@ -139,7 +206,7 @@ public class Deploy extends Model {
         DeployLog deployLog = client.get(this.logUrl, DeployLog.class);
         deployLog.getThreads().forEach(thread -> thread.setClient(client));
 
-        return deployLog.getThreads();
+        return Collections.unmodifiableSet(deployLog.getThreads());
     }
 
     @Override
@@ -170,4 +237,9 @@ class DeployLog extends Model {
         return threads;
     }
 
+    @Override
+    public boolean isFinished() {
+        return threads != null && !threads.isEmpty() && threads.stream().allMatch(BuildThread::isFinished);
+    }
+
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Declarative description of the part of the model tree the {@link GraphLoader} loads eagerly, e.g.
+ * the projects with their branches, the last 5 builds of each branch and the commits of those
+ * builds, but not the build logs:
+ * <pre>{@code
+ * FetchPlan plan = new FetchPlan.Builder()
+ *     .builds(5)
+ *     .commits()
+ *     .deadline(10, TimeUnit.SECONDS)
+ *     .build();
+ * }</pre>
+ * Projects and their branches are always loaded, since they come with a single request. The parts
+ * left out of the plan stay lazy, and are requested on the first access as usual.
+ *
+ * @author sokolovic
+ */
+public final class FetchPlan {
+
+    /**
+     * Limit of the builds or deploys meaning the whole history.
+     */
+    public static final int ALL = Integer.MAX_VALUE;
+
+    private final int builds;
+    private final boolean commits;
+    private final boolean logs;
+    private final boolean servers;
+    private final int deploys;
+    private final boolean webhooks;
+    private final int parallelism;
+    private final long deadline;
+
+    private FetchPlan(Builder builder) {
+        this.builds = builder.builds;
+        this.commits = builder.commits;
+        this.logs = builder.logs;
+        this.servers = builder.servers;
+        this.deploys = builder.deploys;
+        this.webhooks = builder.webhooks;
+        this.parallelism = builder.parallelism;
+        this.deadline = builder.deadline;
+    }
+
+    int getBuilds() {
+        return builds;
+    }
+
+    boolean isCommits() {
+        return commits;
+    }
+
+    boolean isLogs() {
+        return logs;
+    }
+
+    boolean isServers() {
+        return servers;
+    }
+
+    int getDeploys() {
+        return deploys;
+    }
+
+    boolean isWebhooks() {
+        return webhooks;
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Builder of the {@link FetchPlan} instances. By default, only the projects and their branches
+     * are loaded.
+     */
+    public static class Builder {
+
+        int builds;
+        boolean commits;
+        boolean logs;
+        boolean servers;
+        int deploys;
+        boolean webhooks;
+        int parallelism = ParallelFetch.MAX_CONCURRENCY;
+        long deadline;
+
+        /**
+         * Loads the given number of the latest builds of each branch, as returned by
+         * {@link Branch#getLatestBuilds(int)}. The latest builds are requested page by page, only until
+         * there are enough of them; the whole history of the branch stays lazy. Use
+         * {@link FetchPlan#ALL} to load the whole branch history.
+         *
+         * @param last Number of the latest builds to load.
+         * @return This builder.
+         */
+        public Builder builds(int last) {
+            this.builds = last;
+            return this;
+        }
+
+        /**
+         * Loads the commits of each loaded build.
+         *
+         * @return This builder.
+         */
+        public Builder commits() {
+            this.commits = true;
+            return this;
+        }
+
+        /**
+         * Loads the threads of the logs of each loaded build and deploy. Logs are the largest
+         * responses of the API, so load them only if they are needed.
+         *
+         * @return This builder.
+         */
+        public Builder logs() {
+            this.logs = true;
+            return this;
+        }
+
+        /**
+         * Loads the servers of each project.
+         *
+         * @return This builder.
+         */
+        public Builder servers() {
+            this.servers = true;
+            return this;
+        }
+
+        /**
+         * Loads the servers of each project, and the given number of the latest deploys of each server,
+         * the same way as the {@link #builds(int) builds}.
+         *
+         * @param last Number of the latest deploys to load.
+         * @return This builder.
+         */
+        public Builder deploys(int last) {
+            this.servers = true;
+            this.deploys = last;
+            return this;
+        }
+
+        /**
+         * Loads the webhooks of each project.
+         *
+         * @return This builder.
+         */
+        public Builder webhooks() {
+            this.webhooks = true;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of the requests in flight at once. Defaults to 16, which is also the
+         * limit shared by all the concurrent requests of the models.
+         *
+         * @param parallelism Maximum number of the concurrent requests.
+         * @return This builder.
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets the time the whole load may take. There is no deadline by default.
+         *
+         * @param timeout  Time the load may take.
+         * @param timeUnit Time unit of the timeout.
+         * @return This builder.
+         */
+        public Builder deadline(long timeout, TimeUnit timeUnit) {
+            this.deadline = timeUnit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * Builds the configured plan.
+         *
+         * @return New {@link FetchPlan} instance.
+         */
+        public FetchPlan build() {
+            return new FetchPlan(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import org.devfort.semaphoreci4j.SemaphoreCI;
+import org.devfort.semaphoreci4j.client.SemaphoreHttpConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Loads the part of the model tree described by a {@link FetchPlan} eagerly, instead of leaving it to
+ * the lazy getters, which would request it one call at a time as the tree is walked.
+ * <p>
+ * The tree is loaded level by level: first the webhooks and builds of all the projects, then their
+ * server lists and the statuses of all the listed servers, then the commits and logs of all those
+ * builds and the deploys of all the servers, and finally the logs of the deploys. The requests of a
+ * level are made concurrently, bounded by the {@link FetchPlan.Builder#parallelism(int) parallelism}
+ * of the plan, so loading the whole tree takes a few round trips instead of one per node. Most nodes
+ * are loaded with a single request; the builds or deploys of a branch or a server take one request
+ * per page of its history they span, i.e. more than one once the limit of the plan exceeds a page,
+ * or the whole history is loaded. Those pages are requested within the load of their node, so the
+ * levels never nest, but the {@link org.devfort.semaphoreci4j.client.SemaphoreHttpClient client} may
+ * request the pages of a whole history concurrently, beyond the parallelism of the plan.
+ * <p>
+ * A limited number of builds or deploys is loaded as the {@link Branch#getLatestBuilds(int) latest}
+ * ones; the whole history of a branch or a server stays lazy.
+ *
+ * @author sokolovic
+ */
+public class GraphLoader {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final SemaphoreHttpConnection client;
+
+    /**
+     * Argument constructor.
+     *
+     * @param client Connection to request the model tree with.
+     */
+    public GraphLoader(SemaphoreHttpConnection client) {
+        this.client = client;
+    }
+
+    /**
+     * Requests the projects, and loads the rest of the tree as described by the given plan.
+     *
+     * @param plan Plan of the tree to load.
+     * @return Loaded projects mapped by their name.
+     * @throws IOException If an error occurs during Semaphore API request, or the deadline of the plan
+     *                     has passed.
+     */
+    public Map<String, Project> load(FetchPlan plan) throws IOException {
+        return SemaphoreCI.lazy(client).load(plan);
+    }
+
+    /**
+     * Loads the tree of the given, already loaded projects as described by the given plan. The parts of
+     * the tree which have already been loaded are not requested again.
+     *
+     * @param projects Projects to load the tree of.
+     * @param plan     Plan of the tree to load.
+     * @throws IOException If an error occurs during Semaphore API request, or the deadline of the plan
+     *                     has passed.
+     */
+    public void hydrate(Collection<Project> projects, FetchPlan plan) throws IOException {
+        long deadline = plan.getDeadline() > 0 ? System.nanoTime() + plan.getDeadline() : Long.MAX_VALUE;
+
+        // collected by the load rather than keyed by the branch, since the branches of different
+        // projects are equal once they share the name
+        Collection<Collection<Build>> builds = new ConcurrentLinkedQueue<>();
+        List<Load> level = new ArrayList<>();
+        for (Project project : projects) {
+            if (plan.isWebhooks()) {
+                level.add(project::getWebhooks);
+            }
+            if (plan.getBuilds() > 0) {
+                for (Branch branch : project.getBranches()) {
+                    level.add(() -> builds.add(loadBuilds(branch, plan.getBuilds())));
+                }
+            }
+        }
+        run(level, plan, deadline);
+        if (plan.isServers()) {
+            Project.loadServers(projects, plan.getParallelism(), deadline);
+        }
+
+        Collection<Collection<Deploy>> deploys = new ConcurrentLinkedQueue<>();
+        level = new ArrayList<>();
+        if (plan.isCommits() || plan.isLogs()) {
+            for (Build build : flatten(builds)) {
+                if (plan.isCommits()) {
+                    level.add(build::getCommits);
+                }
+                if (plan.isLogs()) {
+                    level.add(build::getThreads);
+                }
+            }
+        }
+        if (plan.getDeploys() > 0) {
+            for (Project project : projects) {
+                for (Server server : project.getServers()) {
+                    level.add(() -> deploys.add(loadDeploys(server, plan.getDeploys())));
+                }
+            }
+        }
+        run(level, plan, deadline);
+
+        level = new ArrayList<>();
+        if (plan.isLogs()) {
+            for (Deploy deploy : flatten(deploys)) {
+                level.add(deploy::getThreads);
+            }
+        }
+        run(level, plan, deadline);
+    }
+
+    /**
+     * Runs the loads of a single level of the tree concurrently.
+     *
+     * @param level    Loads of the level.
+     * @param plan     Plan of the tree.
+     * @param deadline Deadline of the whole tree, as {@link System#nanoTime()}.
+     * @throws IOException If any of the loads failed, or the deadline has passed.
+     */
+    private void run(List<Load> level, FetchPlan plan, long deadline) throws IOException {
+        if (level.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        ParallelFetch.fetchAll(level, load -> {
+            load.load();
+            return Boolean.TRUE;
+        }, plan.getParallelism(), deadline).throwIfAnyFailed();
+        LOGGER.debug("Loaded {} node(s) of the model tree in {} ms", level.size(), (System.nanoTime() - start) / 1000000);
+    }
+
+    /**
+     * Loads the builds of the given branch.
+     *
+     * @param branch Branch to load the builds of.
+     * @param limit  Number of the latest builds to load.
+     * @return Loaded builds.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    private static Collection<Build> loadBuilds(Branch branch, int limit) throws IOException {
+        return limit == FetchPlan.ALL ? branch.getBuilds() : branch.getLatestBuilds(limit);
+    }
+
+    /**
+     * Loads the deploys of the given server.
+     *
+     * @param server Server to load the deploys of.
+     * @param limit  Number of the latest deploys to load.
+     * @return Loaded deploys.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    private static Collection<Deploy> loadDeploys(Server server, int limit) throws IOException {
+        return limit == FetchPlan.ALL ? server.getDeploys() : server.getLatestDeploys(limit);
+    }
+
+    /**
+     * Collects the elements of the given collections into a single list.
+     *
+     * @param collections Collections to flatten.
+     * @param <E>         Type of the elements.
+     * @return Elements of all the collections.
+     */
+    private static <E> List<E> flatten(Collection<Collection<E>> collections) {
+        List<E> flattened = new ArrayList<>();
+        collections.forEach(flattened::addAll);
+        return flattened;
+    }
+
+    /**
+     * Load of a single node of the tree.
+     */
+    @FunctionalInterface
+    private interface Load {
+
+        void load() throws IOException;
+
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Set of the model entries indexed by their identity key (e.g. the webhooks by their ID), so they are
+ * looked up by the key in constant time, instead of by scanning the whole set.
+ * <p>
+ * The key must be the same one the {@code equals} method of the entries is based on. The index is
+ * maintained on every modification, including the ones made through the iterator.
+ *
+ * @param <K> Type of the identity key.
+ * @param <E> Type of the entries.
+ * @author sokolovic
+ */
+final class IndexedSet<K, E> extends AbstractSet<E> {
+
+    private final Class<E> cls;
+    private final Function<? super E, ? extends K> key;
+    private final Map<K, E> entries = new HashMap<>();
+
+    /**
+     * Argument constructor.
+     *
+     * @param cls     Class of the entries.
+     * @param key     Function returning the identity key of an entry.
+     * @param entries Initial entries, may be {@code null}.
+     */
+    IndexedSet(Class<E> cls, Function<? super E, ? extends K> key, Collection<? extends E> entries) {
+        this.cls = cls;
+        this.key = key;
+        if (entries != null) {
+            addAll(entries);
+        }
+    }
+
+    /**
+     * Returns the entry with the given key.
+     *
+     * @param key Identity key of the entry.
+     * @return Entry with the given key, or {@code null} if there is none.
+     */
+    E get(K key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return cls.isInstance(o) && entries.containsKey(key.apply(cls.cast(o)));
+    }
+
+    @Override
+    public boolean add(E entry) {
+        K entryKey = key.apply(entry);
+        if (entries.containsKey(entryKey)) {
+            return false;
+        }
+
+        entries.put(entryKey, entry);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!cls.isInstance(o)) {
+            return false;
+        }
+
+        return entries.remove(key.apply(cls.cast(o))) != null;
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return entries.values().iterator();
+    }
+
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming parser of the build (or deploy) log, passing its content to the {@link LogVisitor}.
+ * <p>
+ * A general purpose JSON parser reads each string value whole before handing it over, which for the
+ * output of a command may take hundreds of megabytes. This parser instead passes the output on in
+ * chunks of a fixed size, as they are read, and skips the fields it does not know the same way. Not
+ * thread-safe; each log is parsed by its own instance.
+ *
+ * @author sokolovic
+ */
+final class LogParser {
+
+    private static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final Reader reader;
+    private final LogVisitor visitor;
+    private final char[] buffer;
+    private final char[] chunk;
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int limit;
+
+    /**
+     * Argument constructor.
+     *
+     * @param content Log content, in UTF-8.
+     * @param visitor Visitor to pass the log content to.
+     */
+    LogParser(InputStream content, LogVisitor visitor) {
+        this(new InputStreamReader(content, StandardCharsets.UTF_8), visitor, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Argument constructor.
+     *
+     * @param reader    Log content.
+     * @param visitor   Visitor to pass the log content to.
+     * @param chunkSize Size of the buffers, and thus the maximum size of an output chunk.
+     */
+    LogParser(Reader reader, LogVisitor visitor, int chunkSize) {
+        this.reader = reader;
+        this.visitor = visitor;
+        this.buffer = new char[chunkSize];
+        this.chunk = new char[chunkSize];
+    }
+
+    /**
+     * Parses the whole log.
+     *
+     * @throws IOException If the log can't be read or parsed, or the visitor fails.
+     */
+    void parse() throws IOException {
+        object(name -> {
+            if ("threads".equals(name) && peek() == '[') {
+                int[] index = {0};
+                array(() -> thread(index[0]++));
+            } else {
+                skipValue();
+            }
+        });
+    }
+
+    private void thread(int index) throws IOException {
+        visitor.startThread(index);
+
+        int[] number = {0};
+        object(name -> {
+            if ("number".equals(name)) {
+                number[0] = toInt(scalar());
+            } else if ("commands".equals(name) && peek() == '[') {
+                int[] commandIndex = {0};
+                array(() -> command(commandIndex[0]++));
+            } else {
+                skipValue();
+            }
+        });
+
+        visitor.endThread(new BuildThread(number[0]));
+    }
+
+    private void command(int index) throws IOException {
+        visitor.startCommand(index);
+
+        String[] fields = new String[5];
+        object(name -> {
+            switch (name) {
+                case "output":
+                    if (peek() == '"') {
+                        string(visitor::output);
+                    } else {
+                        skipValue();
+                    }
+                    break;
+                case "name":
+                    fields[0] = scalar();
+                    break;
+                case "result":
+                    fields[1] = scalar();
+                    break;
+                case "start_time":
+                    fields[2] = scalar();
+                    break;
+                case "finish_time":
+                    fields[3] = scalar();
+                    break;
+                case "duration":
+                    fields[4] = scalar();
+                    break;
+                default:
+                    skipValue();
+            }
+        });
+
+        visitor.endCommand(new Command(fields[0], toInt(fields[1]), fields[2], fields[3], fields[4]));
+    }
+
+    /**
+     * Parses the object, passing each field name to the given handler, which must consume the value.
+     *
+     * @param handler Handler of the object fields.
+     * @throws IOException If the log can't be read or parsed.
+     */
+    private void object(FieldHandler handler) throws IOException {
+        expect('{');
+        if (peek() == '}') {
+            next();
+            return;
+        }
+        do {
+            expect('"');
+            String name = stringValue();
+            expect(':');
+            handler.field(name);
+        } while (separator('}'));
+    }
+
+    /**
+     * Parses the array, calling the given handler for each element, which must consume it.
+     *
+     * @param handler Handler of the array elements.
+     * @throws IOException If the log can't be read or parsed.
+     */
+    private void array(ElementHandler handler) throws IOException {
+        expect('[');
+        if (peek() == ']') {
+            next();
+            return;
+        }
+        do {
+            handler.element();
+        } while (separator(']'));
+    }
+
+    private boolean separator(char end) throws IOException {
+        int c = next();
+        if (c == ',') {
+            return true;
+        }
+        if (c != end) {
+            throw error("Expected ',' or '" + end + "'");
+        }
+        return false;
+    }
+
+    /**
+     * Skips the next value, of any type and size.
+     *
+     * @throws IOException If the log can't be read or parsed.
+     */
+    private void skipValue() throws IOException {
+        switch (peek()) {
+            case '{':
+                object(name -> skipValue());
+                break;
+            case '[':
+                array(this::skipValue);
+                break;
+            case '"':
+                string((chars, offset, length) -> {
+                });
+                break;
+            default:
+                literal();
+        }
+    }
+
+    /**
+     * Reads the next scalar value, i.e. a string, a number, a boolean or {@code null}.
+     *
+     * @return Text of the value, or {@code null} for the {@code null} literal.
+     * @throws IOException If the log can't be read or parsed.
+     */
+    private String scalar() throws IOException {
+        if (peek() == '"') {
+            next();
+            return stringValue();
+        }
+        String literal = literal();
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private String literal() throws IOException {
+        int c = next();
+        if (c == -1 || "{}[],:\"".indexOf(c) >= 0) {
+            throw error("Unexpected character");
+        }
+        text.setLength(0);
+        text.append((char) c);
+        while (fill() && isLiteralPart(buffer[position])) {
+            text.append(buffer[position++]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Reads the rest of the string, whose opening quote has been consumed, as a whole. Only for the
+     * short strings, such as the field names; see {@link #string(TextSink)} for the rest.
+     *
+     * @return String value.
+     * @throws IOException If the log can't be read or parsed.
+     */
+    private String stringValue() throws IOException {
+        text.setLength(0);
+        stringContent(text::append);
+        return text.toString();
+    }
+
+    /**
+     * Reads the next string value, passing its content to the given sink in chunks.
+     *
+     * @param sink Sink of the string content.
+     * @throws IOException If the log can't be read or parsed, or the sink fails.
+     */
+    private void string(TextSink sink) throws IOException {
+        expect('"');
+        stringContent(sink);
+    }
+
+    private void stringContent(TextSink sink) throws IOException {
+        int length = 0;
+        while (true) {
+            if (!fill()) {
+                throw error("Unterminated string");
+            }
+            char c = buffer[position++];
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\') {
+                c = escaped();
+            }
+            chunk[length++] = c;
+            if (length == chunk.length) {
+                sink.write(chunk, 0, length);
+                length = 0;
+            }
+        }
+        if (length > 0) {
+            sink.write(chunk, 0, length);
+        }
+    }
+
+    private char escaped() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw error("Invalid unicode escape");
+                    }
+                    code = code * 16 + digit;
+                }
+                return (char) code;
+            default:
+                throw error("Invalid escape");
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (next() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    /**
+     * Returns the next character which is not a whitespace, without consuming it.
+     *
+     * @return Next character, or {@code -1} at the end of the log.
+     * @throws IOException If the log can't be read.
+     */
+    private int peek() throws IOException {
+        while (fill()) {
+            char c = buffer[position];
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    /**
+     * Consumes the next character which is not a whitespace.
+     *
+     * @return Next character, or {@code -1} at the end of the log.
+     * @throws IOException If the log can't be read.
+     */
+    private int next() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        return fill() ? buffer[position++] : -1;
+    }
+
+    /**
+     * Makes sure there is a character to read in the buffer.
+     *
+     * @return {@code false} at the end of the log.
+     * @throws IOException If the log can't be read.
+     */
+    private boolean fill() throws IOException {
+        while (position == limit) {
+            limit = reader.read(buffer);
+            position = 0;
+            if (limit == -1) {
+                limit = 0;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private IOException error(String message) {
+        return new JsonParseException(null, message + " in the log");
+    }
+
+    private static boolean isLiteralPart(char c) {
+        return !Character.isWhitespace(c) && "{}[],:\"".indexOf(c) < 0;
+    }
+
+    private static int toInt(String value) {
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : 0;
+        } catch (NumberFormatException exception) {
+            return 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface FieldHandler {
+
+        void field(String name) throws IOException;
+
+    }
+
+    @FunctionalInterface
+    private interface ElementHandler {
+
+        void element() throws IOException;
+
+    }
+
+    @FunctionalInterface
+    private interface TextSink {
+
+        void write(char[] chars, int offset, int length) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import java.io.IOException;
+
+/**
+ * Visitor of the build (or deploy) log, streamed by {@link Build#streamLog(LogVisitor)} as the log is
+ * being received.
+ * <p>
+ * The threads and their commands are visited in the order they appear in the log. The output of a
+ * command is passed in chunks, between {@link #startCommand(int)} and {@link #endCommand(Command)},
+ * while the rest of the command fields, which may come in any order, are passed at its end. No part of
+ * the log is kept, so the memory used does not depend on the size of the log. All the methods do nothing
+ * by default.
+ *
+ * @author sokolovic
+ */
+public interface LogVisitor {
+
+    /**
+     * Visits the start of a thread.
+     *
+     * @param index Position of the thread within the log, starting from 0.
+     * @throws IOException If the visitor fails, which aborts the streaming.
+     */
+    default void startThread(int index) throws IOException {
+    }
+
+    /**
+     * Visits the start of a command of the current thread.
+     *
+     * @param index Position of the command within its thread, starting from 0.
+     * @throws IOException If the visitor fails, which aborts the streaming.
+     */
+    default void startCommand(int index) throws IOException {
+    }
+
+    /**
+     * Visits the chunk of the output of the current command. The given array is reused for the next
+     * chunk, so it must not be kept.
+     *
+     * @param chunk  Array holding the chunk.
+     * @param offset Offset of the chunk within the array.
+     * @param length Length of the chunk.
+     * @throws IOException If the visitor fails, which aborts the streaming.
+     */
+    default void output(char[] chunk, int offset, int length) throws IOException {
+    }
+
+    /**
+     * Visits the end of the current command.
+     *
+     * @param command Command, without its output.
+     * @throws IOException If the visitor fails, which aborts the streaming.
+     */
+    default void endCommand(Command command) throws IOException {
+    }
+
+    /**
+     * Visits the end of the current thread.
+     *
+     * @param thread Thread, without its commands.
+     * @throws IOException If the visitor fails, which aborts the streaming.
+     */
+    default void endThread(BuildThread thread) throws IOException {
+    }
+
+}
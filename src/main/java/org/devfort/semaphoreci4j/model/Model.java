@@ -17,12 +17,26 @@
 
 package org.devfort.semaphoreci4j.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.devfort.semaphoreci4j.client.SemaphoreHttpConnection;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * Abstract model definition.
+ * <p>
+ * The models may be shared among any number of threads. The collections they load lazily are
+ * published as unmodifiable snapshots: a refresh replaces a snapshot as a whole, and a modification
+ * (e.g. creating a webhook) is applied to a copy of the current snapshot, which then replaces it. The
+ * readers thus never see a partially updated collection, and never need to lock.
  *
  * @author sokolovic
  */
@@ -30,6 +44,9 @@ public abstract class Model {
 
     SemaphoreHttpConnection client;
 
+    @JsonIgnore
+    private transient long contentLength;
+
     /**
      * Sets the {@link SemaphoreHttpConnection client} to use for interacting
      * with Semaphore API.
@@ -40,6 +57,27 @@ public abstract class Model {
         this.client = client;
     }
 
+    /**
+     * Returns the length of the response body this instance has been decoded from, as measured by
+     * the client while decoding it.
+     *
+     * @return Length of the response body in bytes, or 0 if it is not known.
+     */
+    @JsonIgnore
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Sets the length of the response body this instance has been decoded from.
+     *
+     * @param contentLength Length of the response body in bytes.
+     */
+    @JsonIgnore
+    public void setContentLength(long contentLength) {
+        this.contentLength = contentLength;
+    }
+
     /**
      * Helper method for merging different objects into one.
      * <p>
@@ -47,6 +85,9 @@ public abstract class Model {
      * of some type within the model itself, and the results are collected from the API in batches
      * (i.e. pagination). By redefining this method on that particular model we are able to collect
      * all the response content into one Model instance, and return it.
+     * <p>
+     * The merge should leave both instances intact and return a new one, since the pages may be
+     * shared (e.g. kept by the validator cache of the client).
      *
      * @param other Other model instance to merge with.
      * @return Merged instance of this type, as defined in this method override.
@@ -55,6 +96,17 @@ public abstract class Model {
         return this;
     }
 
+    /**
+     * Checks whether the content of this instance is final, i.e. it can no longer change on the
+     * Semaphore side (e.g. a finished build), so it may be kept in a cache for longer.
+     *
+     * @return {@code true} if the content is final; {@code false} by default.
+     */
+    @JsonIgnore
+    public boolean isFinished() {
+        return false;
+    }
+
     /**
      * Enforces the refresh on the given model instance, meaning that all previous
      * data stored in memory is cleared and we reach out to API in order to get the
@@ -65,6 +117,49 @@ public abstract class Model {
     public void refresh() throws IOException {
     }
 
+    /**
+     * Refreshes the given model instance in the given mode. Unless overridden, the model is refreshed
+     * the same way in both modes, as defined by {@link #refresh()}.
+     *
+     * @param mode Way of applying the fresh data to the model.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    public void refresh(RefreshMode mode) throws IOException {
+        refresh();
+    }
+
+    /**
+     * Reconciles the freshly loaded instances into the held ones, matched by their identity key. The held
+     * instances are updated with their fresh state and kept, while the new ones are bound to the client of
+     * this model and added.
+     *
+     * @param held   Held instances.
+     * @param fresh  Freshly loaded instances.
+     * @param key    Function returning the identity key of an instance.
+     * @param update Function updating the held instance with its fresh state.
+     * @param <K>    Type of the identity key.
+     * @param <E>    Type of the instances.
+     * @return Held instances if no instance has been added or removed; otherwise, the unmodifiable set of the
+     * reconciled instances.
+     */
+    <K, E extends Model> Set<E> reconcile(Set<E> held, Collection<E> fresh, Function<? super E, K> key, BiConsumer<E, E> update) {
+        Map<K, E> heldByKey = new HashMap<>();
+        held.forEach(entry -> heldByKey.put(key.apply(entry), entry));
+
+        Set<E> reconciled = new LinkedHashSet<>();
+        for (E entry : fresh) {
+            E heldEntry = heldByKey.get(key.apply(entry));
+            if (heldEntry != null) {
+                update.accept(heldEntry, entry);
+                reconciled.add(heldEntry);
+            } else {
+                entry.setClient(client);
+                reconciled.add(entry);
+            }
+        }
+        return reconciled.equals(held) ? held : Collections.unmodifiableSet(reconciled);
+    }
+
     /**
      * Returns the root API URL.
      *
@@ -0,0 +1,431 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * History of the numbered entries, i.e. the builds of a branch or the deploys of a server, kept sorted
+ * by their number.
+ * <p>
+ * The numbers are kept in a primitive {@code long} array, alongside the array of the entries, so the
+ * history takes a fraction of the memory of a hash set, and an entry is found by its number using the
+ * binary search. Entries of a refreshed history are newer than the ones held already, so adding them
+ * amounts to appending them to the arrays. The iteration order is ascending by the number.
+ * <p>
+ * Entries are equal if their numbers are, so the history holds at most one entry per number.
+ * <p>
+ * The histories held by the models are frozen snapshots: they never change once published, and any
+ * attempt to modify them throws {@link UnsupportedOperationException}, so they can be read by any
+ * number of threads. A refresh publishes a new snapshot instead.
+ *
+ * @param <E> Type of the history entries.
+ * @author sokolovic
+ */
+public final class NumberedHistory<E> extends AbstractSet<E> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Class<E> cls;
+    private final ToLongFunction<? super E> number;
+
+    private long[] numbers;
+    private Object[] entries;
+    private int size;
+    private int modCount;
+    private boolean frozen;
+
+    /**
+     * Argument constructor.
+     *
+     * @param cls     Class of the entries.
+     * @param number  Function returning the number of an entry.
+     * @param entries Initial entries, in any order.
+     */
+    NumberedHistory(Class<E> cls, ToLongFunction<? super E> number, Collection<? extends E> entries) {
+        this.cls = cls;
+        this.number = number;
+        this.numbers = new long[Math.max(INITIAL_CAPACITY, entries.size())];
+        this.entries = new Object[numbers.length];
+        addAll(entries);
+    }
+
+    /**
+     * Makes this history unmodifiable, so it can be published as a snapshot.
+     *
+     * @return This history.
+     */
+    NumberedHistory<E> freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Returns the snapshot of this history updated with the entries of the source history, e.g. the
+     * pages of the branch history. The source is consumed, newest first, only until it reaches the
+     * entries held already which are finished, as well as all the older ones, so a refresh requests as
+     * many pages as there are new or still running entries, rather than the whole history.
+     * <p>
+     * The new entries are added, and the held entries which have not been finished are replaced with
+     * their current state; the rest of the held entries are kept as they are.
+     *
+     * @param newestFirst Entries of the source history, newest first.
+     * @param finished    Predicate telling whether an entry can no longer change.
+     * @return Updated snapshot of this history, or this history if nothing has changed.
+     */
+    NumberedHistory<E> sync(Iterator<? extends E> newestFirst, Predicate<? super E> finished) {
+        return sync(newestFirst, finished, (held, fresh) -> fresh);
+    }
+
+    /**
+     * Returns the snapshot of this history updated with the entries of the source history, the same way
+     * as {@link #sync(Iterator, Predicate)} does, except that the held entries which have not been
+     * finished are reconciled with their current state by the given function. If it returns the held
+     * entry (e.g. updated in place), the entry is kept in the snapshot.
+     *
+     * @param newestFirst Entries of the source history, newest first.
+     * @param finished    Predicate telling whether an entry can no longer change.
+     * @param reconcile   Function reconciling the held entry with its current state, returning the entry
+     *                    to keep.
+     * @return Updated snapshot of this history, or this history if no entry has been added or replaced.
+     */
+    NumberedHistory<E> sync(Iterator<? extends E> newestFirst, Predicate<? super E> finished, BinaryOperator<E> reconcile) {
+        long stopAt = size > 0 ? numbers[size - 1] : Long.MIN_VALUE;
+        for (int i = 0; i < size && numbers[i] < stopAt; i++) {
+            if (!finished.test(entryAt(i))) {
+                stopAt = numbers[i];
+            }
+        }
+
+        List<E> changed = new ArrayList<>();
+        while (newestFirst.hasNext()) {
+            E entry = newestFirst.next();
+            long entryNumber = number.applyAsLong(entry);
+            if (entryNumber < stopAt) {
+                break;
+            }
+
+            E held = get(entryNumber);
+            if (held == null) {
+                changed.add(entry);
+            } else if (!finished.test(held)) {
+                E reconciled = reconcile.apply(held, entry);
+                if (reconciled != held) {
+                    changed.add(reconciled);
+                }
+            }
+            if (entryNumber == stopAt) {
+                break;
+            }
+        }
+        if (changed.isEmpty()) {
+            return this;
+        }
+
+        NumberedHistory<E> synced = new NumberedHistory<>(cls, number, this);
+        synced.removeAll(changed);
+        synced.addAll(changed);
+
+        return synced.freeze();
+    }
+
+    /**
+     * Returns the entry with the given number.
+     *
+     * @param number Number of the entry.
+     * @return Entry with the given number, or {@code null} if there is none.
+     */
+    public E get(long number) {
+        int index = Arrays.binarySearch(numbers, 0, size, number);
+        return index >= 0 ? entryAt(index) : null;
+    }
+
+    /**
+     * Returns the latest entry, i.e. the one with the greatest number.
+     *
+     * @return Latest entry, or {@code null} if the history is empty.
+     */
+    public E getLatest() {
+        return size > 0 ? entryAt(size - 1) : null;
+    }
+
+    /**
+     * Returns the entries numbered within the given range.
+     *
+     * @param from Lowest number of the range, inclusive.
+     * @param to   Highest number of the range, inclusive.
+     * @return Entries within the given range, ascending by the number.
+     */
+    public List<E> between(long from, long to) {
+        int start = lowerBound(from);
+        int end = to == Long.MAX_VALUE ? size : lowerBound(to + 1);
+
+        List<E> range = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            range.add(entryAt(i));
+        }
+        return range;
+    }
+
+    /**
+     * Returns the given number of the latest entries.
+     *
+     * @param count Number of the entries to return.
+     * @return Latest entries, newest first.
+     */
+    public List<E> latest(int count) {
+        List<E> latest = new ArrayList<>(Math.min(count, size));
+        for (int i = size - 1; i >= 0 && latest.size() < count; i--) {
+            latest.add(entryAt(i));
+        }
+        return latest;
+    }
+
+    /**
+     * Returns the iterator over the entries, starting with the latest one.
+     *
+     * @return Iterator over the entries, newest first.
+     */
+    public Iterator<E> descendingIterator() {
+        return latest(size).iterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return cls.isInstance(o) && Arrays.binarySearch(numbers, 0, size, numberOf(o)) >= 0;
+    }
+
+    @Override
+    public boolean add(E entry) {
+        checkMutable();
+        long entryNumber = number.applyAsLong(entry);
+        if (size == 0 || entryNumber > numbers[size - 1]) {
+            ensureCapacity(size + 1);
+            set(size++, entryNumber, entry);
+        } else {
+            int index = Arrays.binarySearch(numbers, 0, size, entryNumber);
+            if (index >= 0) {
+                return false;
+            }
+
+            index = -index - 1;
+            ensureCapacity(size + 1);
+            System.arraycopy(numbers, index, numbers, index + 1, size - index);
+            System.arraycopy(entries, index, entries, index + 1, size - index);
+            set(index, entryNumber, entry);
+            size++;
+        }
+
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Adds all the given entries, merging them into the sorted arrays at once. If they are all newer
+     * than the entries held already, they are just appended.
+     *
+     * @param added Entries to add, in any order.
+     * @return {@code true} if any of the entries has been added.
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> added) {
+        checkMutable();
+        if (added.isEmpty()) {
+            return false;
+        }
+
+        Object[] addedEntries = added.toArray();
+        Arrays.sort(addedEntries, Comparator.comparingLong(this::numberOf));
+
+        int previousSize = size;
+        if (size == 0 || numberOf(addedEntries[0]) > numbers[size - 1]) {
+            ensureCapacity(size + addedEntries.length);
+            for (Object entry : addedEntries) {
+                long entryNumber = numberOf(entry);
+                if (size == 0 || entryNumber != numbers[size - 1]) {
+                    set(size++, entryNumber, entry);
+                }
+            }
+        } else {
+            merge(addedEntries);
+        }
+
+        modCount++;
+        return size != previousSize;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        checkMutable();
+        if (!cls.isInstance(o)) {
+            return false;
+        }
+
+        int index = Arrays.binarySearch(numbers, 0, size, numberOf(o));
+        if (index < 0) {
+            return false;
+        }
+
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        checkMutable();
+        Arrays.fill(entries, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private int cursor;
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public E next() {
+                checkForComodification();
+                if (cursor >= size) {
+                    throw new NoSuchElementException();
+                }
+                last = cursor++;
+                return entryAt(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                checkMutable();
+                checkForComodification();
+
+                removeAt(last);
+                cursor = last;
+                last = -1;
+                expectedModCount = modCount;
+            }
+
+            private void checkForComodification() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Merges the given sorted entries with the ones held already, keeping the ones held already in case
+     * of the same numbers.
+     *
+     * @param addedEntries Entries to add, ascending by the number.
+     */
+    private void merge(Object[] addedEntries) {
+        long[] mergedNumbers = new long[Math.max(numbers.length, size + addedEntries.length)];
+        Object[] mergedEntries = new Object[mergedNumbers.length];
+
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size || j < addedEntries.length) {
+            long addedNumber = j < addedEntries.length ? numberOf(addedEntries[j]) : Long.MAX_VALUE;
+            if (i < size && numbers[i] <= addedNumber) {
+                if (j < addedEntries.length && numbers[i] == addedNumber) {
+                    j++;
+                    continue;
+                }
+                mergedNumbers[k] = numbers[i];
+                mergedEntries[k++] = entries[i++];
+            } else {
+                if (k == 0 || mergedNumbers[k - 1] != addedNumber) {
+                    mergedNumbers[k] = addedNumber;
+                    mergedEntries[k++] = addedEntries[j];
+                }
+                j++;
+            }
+        }
+
+        numbers = mergedNumbers;
+        entries = mergedEntries;
+        size = k;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("History snapshot cannot be modified");
+        }
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(numbers, index + 1, numbers, index, size - index - 1);
+        System.arraycopy(entries, index + 1, entries, index, size - index - 1);
+        entries[--size] = null;
+        modCount++;
+    }
+
+    /**
+     * Returns the index of the first entry numbered at least with the given number.
+     *
+     * @param number Number to look for.
+     * @return Index of the first entry not below the given number.
+     */
+    private int lowerBound(long number) {
+        int index = Arrays.binarySearch(numbers, 0, size, number);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > numbers.length) {
+            int newCapacity = Math.max(capacity, numbers.length + (numbers.length >> 1));
+            numbers = Arrays.copyOf(numbers, newCapacity);
+            entries = Arrays.copyOf(entries, newCapacity);
+        }
+    }
+
+    private void set(int index, long entryNumber, Object entry) {
+        numbers[index] = entryNumber;
+        entries[index] = entry;
+    }
+
+    private long numberOf(Object entry) {
+        return number.applyAsLong(cls.cast(entry));
+    }
+
+    private E entryAt(int index) {
+        return cls.cast(entries[index]);
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import org.devfort.semaphoreci4j.client.Page;
+import org.devfort.semaphoreci4j.client.SemaphoreHttpConnection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator over the entries of a paginated history, which requests the pages lazily, only once the
+ * consumer advances past the entries of the current page. Only one page is held in memory at a time.
+ * <p>
+ * Since the iterator cannot throw checked exceptions, the errors of Semaphore API requests are
+ * rethrown as {@link UncheckedIOException}.
+ *
+ * @param <P> Type of the page content.
+ * @param <E> Type of the history entries.
+ * @author sokolovic
+ */
+class PagedIterator<P extends Model, E extends Model> implements Iterator<E> {
+
+    private final SemaphoreHttpConnection client;
+    private final String url;
+    private final Class<P> pageClass;
+    private final Function<P, Collection<E>> entries;
+    private final Comparator<E> order;
+
+    private Iterator<E> current = Collections.emptyIterator();
+    private int nextPage = 1;
+    private int totalPages = 1;
+
+    /**
+     * Argument constructor.
+     *
+     * @param client    Client to request the pages with.
+     * @param url       URL of the paginated history.
+     * @param pageClass Class of the page content.
+     * @param entries   Function extracting the entries from the page content.
+     * @param order     Order of the entries within the page.
+     */
+    PagedIterator(SemaphoreHttpConnection client, String url, Class<P> pageClass, Function<P, Collection<E>> entries, Comparator<E> order) {
+        this.client = client;
+        this.url = url;
+        this.pageClass = pageClass;
+        this.entries = entries;
+        this.order = order;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext() && nextPage <= totalPages) {
+            current = fetchPage(nextPage++);
+        }
+        return current.hasNext();
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Returns the sequential, ordered stream over the remaining entries of this iterator.
+     *
+     * @return Stream of the history entries.
+     */
+    Stream<E> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Requests the given page and returns the iterator over its entries, bound to the client.
+     *
+     * @param page Number of the page to request.
+     * @return Iterator over the page entries.
+     */
+    private Iterator<E> fetchPage(int page) {
+        try {
+            Page<P> result = client.getPage(url, pageClass, page);
+            totalPages = result.getTotalPages();
+            if (result.getContent() == null) {
+                return Collections.emptyIterator();
+            }
+
+            List<E> pageEntries = new ArrayList<>(entries.apply(result.getContent()));
+            pageEntries.sort(order);
+            pageEntries.forEach(entry -> entry.setClient(client));
+
+            return pageEntries.iterator();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the independent Semaphore API requests of a model concurrently, e.g. the status requests of
+ * all the project servers, collecting the result or the failure of each of them.
+ * <p>
+ * The requests of all the calls share one pool of {@link #MAX_CONCURRENCY} daemon threads, so at
+ * most that many of them are in flight at once, however many calls there are. The calling thread
+ * takes part in its own call as well, unless the call has a deadline; a call made from a request
+ * of another call thus makes progress even when the pool is busy with the outer call.
+ *
+ * @author sokolovic
+ */
+final class ParallelFetch {
+
+    static final int MAX_CONCURRENCY = 16;
+
+    private static final ExecutorService EXECUTOR = newExecutor();
+
+    private ParallelFetch() {
+    }
+
+    /**
+     * Fetches the result of each of the given sources concurrently, and waits for all of them.
+     *
+     * @param sources Sources to fetch the results of.
+     * @param fetch   Request fetching the result of a single source.
+     * @param <S>     Type of the sources.
+     * @param <R>     Type of the results.
+     * @return Results and failures of the sources.
+     * @throws InterruptedIOException If the calling thread has been interrupted while waiting.
+     */
+    static <S, R> Results<S, R> fetchAll(Collection<S> sources, Fetch<S, R> fetch) throws InterruptedIOException {
+        return fetchAll(sources, fetch, MAX_CONCURRENCY, Long.MAX_VALUE);
+    }
+
+    /**
+     * Fetches the result of each of the given sources concurrently, and waits for all of them, but
+     * not past the given deadline.
+     *
+     * @param sources     Sources to fetch the results of.
+     * @param fetch       Request fetching the result of a single source.
+     * @param concurrency Maximum number of the requests of this call in flight at once.
+     * @param deadline    Deadline, as {@link System#nanoTime()}, or {@link Long#MAX_VALUE} for none.
+     * @param <S>         Type of the sources.
+     * @param <R>         Type of the results.
+     * @return Results and failures of the sources.
+     * @throws InterruptedIOException If the calling thread has been interrupted while waiting, or the
+     *                                deadline has passed before all the sources have been fetched.
+     */
+    static <S, R> Results<S, R> fetchAll(Collection<S> sources, Fetch<S, R> fetch, int concurrency, long deadline) throws InterruptedIOException {
+        List<S> pending = new ArrayList<>(sources);
+        Map<S, R> values = new ConcurrentHashMap<>();
+        Map<S, IOException> failures = new ConcurrentHashMap<>();
+        AtomicInteger next = new AtomicInteger();
+
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < pending.size() && !Thread.currentThread().isInterrupted(); i = next.getAndIncrement()) {
+                S source = pending.get(i);
+                try {
+                    R value = fetch.fetch(source);
+                    if (value != null) {
+                        values.put(source, value);
+                    }
+                } catch (IOException exception) {
+                    failures.put(source, exception);
+                } catch (RuntimeException exception) {
+                    failures.put(source, new IOException(exception));
+                }
+            }
+        };
+
+        // without a deadline, the calling thread is one of the workers
+        boolean participate = deadline == Long.MAX_VALUE;
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int i = participate ? 1 : 0; i < Math.min(concurrency, pending.size()); i++) {
+                workers.add(EXECUTOR.submit(worker));
+            }
+            if (participate) {
+                worker.run();
+            }
+            for (Future<?> future : workers) {
+                if (deadline == Long.MAX_VALUE) {
+                    future.get();
+                } else {
+                    future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + pending.size() + " request(s)");
+        } catch (TimeoutException exception) {
+            throw new InterruptedIOException("Deadline passed with " + (pending.size() - values.size() - failures.size()) + " of " + pending.size() + " request(s) unfinished");
+        } catch (ExecutionException exception) {
+            Throwables.throwIfUnchecked(exception.getCause());
+            throw new IllegalStateException(exception.getCause());
+        } finally {
+            workers.forEach(future -> future.cancel(true));
+        }
+
+        return new Results<>(pending, values, failures);
+    }
+
+    /**
+     * Creates the pool of {@link #MAX_CONCURRENCY} daemon threads, which are released once idle.
+     *
+     * @return Executor of the requests.
+     */
+    private static ExecutorService newExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_CONCURRENCY, MAX_CONCURRENCY, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+            .setNameFormat("semaphore-fetch-%d")
+            .setDaemon(true)
+            .build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Request fetching the result of a single source.
+     *
+     * @param <S> Type of the source.
+     * @param <R> Type of the result.
+     */
+    @FunctionalInterface
+    interface Fetch<S, R> {
+
+        R fetch(S source) throws IOException;
+
+    }
+
+    /**
+     * Results and failures of the fetched sources, in the order of the sources.
+     *
+     * @param <S> Type of the sources.
+     * @param <R> Type of the results.
+     */
+    static final class Results<S, R> {
+
+        private final Map<S, R> values = new LinkedHashMap<>();
+        private final Map<S, IOException> failures = new LinkedHashMap<>();
+
+        Results(List<S> sources, Map<S, R> values, Map<S, IOException> failures) {
+            for (S source : sources) {
+                if (values.containsKey(source)) {
+                    this.values.put(source, values.get(source));
+                } else if (failures.containsKey(source)) {
+                    this.failures.put(source, failures.get(source));
+                }
+            }
+        }
+
+        Map<S, R> getValues() {
+            return values;
+        }
+
+        Map<S, IOException> getFailures() {
+            return failures;
+        }
+
+        /**
+         * Rethrows the first failure, with the rest of them suppressed, if none of the sources has
+         * been fetched.
+         *
+         * @throws IOException If all the sources failed.
+         */
+        void throwIfAllFailed() throws IOException {
+            if (values.isEmpty()) {
+                throwIfAnyFailed();
+            }
+        }
+
+        /**
+         * Rethrows the first failure, with the rest of them suppressed, if any of the sources has
+         * failed.
+         *
+         * @throws IOException If any of the sources failed.
+         */
+        void throwIfAnyFailed() throws IOException {
+            if (!failures.isEmpty()) {
+                Iterator<IOException> iterator = failures.values().iterator();
+                IOException first = iterator.next();
+                while (iterator.hasNext()) {
+                    IOException other = iterator.next();
+                    if (other != first) {
+                        first.addSuppressed(other);
+                    }
+                }
+                throw first;
+            }
+        }
+
+    }
+
+}
@@ -19,9 +19,14 @@ package org.devfort.semaphoreci4j.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.devfort.semaphoreci4j.client.AsyncSemaphoreHttpConnection;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * Semaphore project.
@@ -48,8 +53,9 @@ public class Project extends Model {
     @JsonProperty("branches")
     private Set<Branch> branches;
 
-    private Set<Server> servers;
-    private Set<Webhook> webhooks;
+    private volatile ServerSnapshot servers;
+    private volatile IndexedSet<Long, Webhook> webhooks;
+    private volatile Map<String, Branch> branchesByName;
 
     /**
      * Returns the project ID.
@@ -120,7 +126,7 @@ public class Project extends Model {
      * @return Project branches.
      */
     public Set<Branch> getBranches() {
-        return branches;
+        return Collections.unmodifiableSet(branches);
     }
 
     /**
@@ -130,33 +136,155 @@ public class Project extends Model {
      * @return Project branch with the given name, or empty {@code Optional} if it doesn't exist.
      */
     public Optional<Branch> getBranch(String name) {
-        return branches.stream().filter(branch -> branch.getName().equals(name)).findFirst();
+        Map<String, Branch> index = branchesByName;
+        if (index == null) {
+            index = new HashMap<>();
+            for (Branch branch : branches) {
+                index.putIfAbsent(branch.getName(), branch);
+            }
+            branchesByName = index;
+        }
+        return Optional.ofNullable(index.get(name));
     }
 
     /**
-     * Returns the project servers.
+     * Returns the project servers. The servers whose status request failed when the servers were
+     * loaded are requested again, so a transient failure doesn't leave them out for good.
      *
      * @return Project servers.
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Set<Server> getServers() throws IOException {
-        if (servers == null) {
-            servers = doGetServers();
+        ServerSnapshot current = servers;
+        if (current == null) {
+            current = doGetServers();
+            servers = current;
+        } else if (!current.failed.isEmpty()) {
+            current = publishServers(current, toSnapshot(ParallelFetch.fetchAll(current.failed, this::fetchServer), current));
+        }
+        return current.servers;
+    }
+
+    /**
+     * Returns the project servers, only if they have been loaded already. Unlike {@link #getServers()},
+     * it never requests the servers.
+     *
+     * @return Project servers, or empty {@code Optional} if they have not been loaded yet.
+     */
+    public Optional<Set<Server>> getLoadedServers() {
+        ServerSnapshot current = servers;
+        return current != null ? Optional.of(current.servers) : Optional.empty();
+    }
+
+    /**
+     * Returns the failures of the latest server status requests, made by {@link #getServers()} or
+     * {@link #getServersAsync()}. The servers failed to load are missing from the returned servers,
+     * rather than failing them all, until a later call loads them.
+     *
+     * @return Failures of the server status requests, mapped by the server name.
+     */
+    public Map<String, IOException> getServerFailures() {
+        ServerSnapshot current = servers;
+        return current != null ? current.failures : Collections.emptyMap();
+    }
+
+    /**
+     * Returns the project servers without blocking the calling thread. Statuses of all the servers
+     * are requested at once; as with {@link #getServers()}, the servers whose status request failed
+     * are left out, their failures are kept for {@link #getServerFailures()}, and they are requested
+     * again by the next call.
+     *
+     * @return Future of the project servers, completed exceptionally if listing the servers failed,
+     * or none of the server status requests succeeded.
+     */
+    public CompletableFuture<Set<Server>> getServersAsync() {
+        ServerSnapshot current = servers;
+        if (current != null && current.failed.isEmpty()) {
+            return CompletableFuture.completedFuture(current.servers);
+        }
+
+        AsyncSemaphoreHttpConnection asyncClient = client.async();
+        CompletableFuture<List<ProjectServer>> projectServers = current != null
+            ? CompletableFuture.completedFuture(current.failed)
+            : asyncClient.getList(getServersUrl(), ProjectServer.class);
+        return projectServers.thenCompose(pending -> fetchServersAsync(asyncClient, pending)).thenApply(results -> {
+            try {
+                ServerSnapshot snapshot = toSnapshot(results, current);
+                if (current == null) {
+                    servers = snapshot;
+                    return snapshot.servers;
+                }
+                return publishServers(current, snapshot).servers;
+            } catch (IOException exception) {
+                throw new CompletionException(exception);
+            }
+        });
+    }
+
+    /**
+     * Requests the statuses of the given servers of this project at once, without blocking the calling
+     * thread.
+     *
+     * @param asyncClient    Non-blocking connection to request the statuses with.
+     * @param projectServers Servers of this project.
+     * @return Future of the results of the server status requests, never completed exceptionally.
+     */
+    private CompletableFuture<ParallelFetch.Results<ProjectServer, Server>> fetchServersAsync(AsyncSemaphoreHttpConnection asyncClient,
+                                                                                              List<ProjectServer> projectServers) {
+        Map<ProjectServer, Server> values = new ConcurrentHashMap<>();
+        Map<ProjectServer, IOException> failures = new ConcurrentHashMap<>();
+        List<CompletableFuture<?>> serverFutures = new ArrayList<>();
+        for (ProjectServer ps : projectServers) {
+            serverFutures.add(asyncClient.get(ps.getStatusUrl(), Server.class).handle((server, exception) -> {
+                if (exception != null) {
+                    Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+                    failures.put(ps, cause instanceof IOException ? (IOException) cause : new IOException(cause));
+                } else if (server != null) {
+                    values.put(ps, server);
+                }
+                return null;
+            }));
+        }
+
+        return CompletableFuture.allOf(serverFutures.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> new ParallelFetch.Results<>(projectServers, values, failures));
+    }
+
+    /**
+     * Publishes the snapshot of the servers, retried from the given one, unless another snapshot has
+     * been published meanwhile.
+     *
+     * @param current Snapshot the failed servers have been retried from.
+     * @param updated Snapshot with the retried servers.
+     * @return Snapshot published.
+     */
+    private synchronized ServerSnapshot publishServers(ServerSnapshot current, ServerSnapshot updated) {
+        if (servers == current) {
+            servers = updated;
         }
         return servers;
     }
 
     /**
-     * Returns the project webhooks.
+     * Returns the project webhooks. The returned set is an unmodifiable snapshot; creating, updating
+     * or removing a webhook publishes a new snapshot, rather than modifying it.
      *
      * @return Project webhooks.
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Set<Webhook> getWebhooks() throws IOException {
-        if (webhooks == null) {
-            webhooks = doGetWebhooks();
-        }
-        return webhooks;
+        return Collections.unmodifiableSet(getWebhookIndex());
+    }
+
+    /**
+     * Returns the project webhook by its ID.
+     *
+     * @param id ID of the webhook to get.
+     * @return Project webhook with the given ID, or empty {@code Optional} if it doesn't exist.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    public Optional<Webhook> getWebhook(Long id) throws IOException {
+        return Optional.ofNullable(getWebhookIndex().get(id));
     }
 
     /**
@@ -172,9 +300,10 @@ public class Project extends Model {
         data.put("url", url);
         data.put("hook_type", type.toString());
 
+        getWebhookIndex();
         Webhook newHook = client.post(getWebhooksUrl(), data, Webhook.class);
         newHook.setClient(client);
-        getWebhooks().add(newHook);
+        updateWebhooks(webhooks -> webhooks.add(newHook));
 
         return newHook;
     }
@@ -189,7 +318,7 @@ public class Project extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Webhook updateWebhook(Webhook webhook, String url, Webhook.Type type) throws IOException {
-        if (!webhooks.contains(webhook)) {
+        if (!getWebhookIndex().contains(webhook)) {
             return null;
         }
 
@@ -199,8 +328,10 @@ public class Project extends Model {
 
         Webhook updatedHook = client.put(getWebhooksUrl() + "/" + webhook.getId(), data, Webhook.class);
         updatedHook.setClient(client);
-        getWebhooks().remove(updatedHook);      // remove the old one, identified by ID
-        getWebhooks().add(updatedHook);         // add the new one
+        updateWebhooks(webhooks -> {
+            webhooks.remove(updatedHook);       // remove the old one, identified by ID
+            return webhooks.add(updatedHook);   // add the new one
+        });
 
         return updatedHook;
     }
@@ -213,33 +344,143 @@ public class Project extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public boolean deleteWebhook(Webhook webhook) throws IOException {
-        if (!webhooks.contains(webhook)) {
+        if (!getWebhookIndex().contains(webhook)) {
             return false;
         }
 
         client.delete(getWebhooksUrl() + "/" + webhook.getId());
-        webhooks.remove(webhook);
+        return updateWebhooks(webhooks -> webhooks.remove(webhook));
+    }
 
-        return true;
+    /**
+     * Returns the current snapshot of the project webhooks, requesting them if needed.
+     *
+     * @return Project webhooks indexed by their ID.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    private IndexedSet<Long, Webhook> getWebhookIndex() throws IOException {
+        IndexedSet<Long, Webhook> current = webhooks;
+        if (current == null) {
+            IndexedSet<Long, Webhook> loaded = doGetWebhooks();
+            synchronized (this) {
+                if (webhooks == null) {
+                    webhooks = loaded;
+                }
+                current = webhooks;
+            }
+        }
+        return current;
     }
 
     /**
-     * Invokes the Semaphore API in order to collect project servers.
+     * Applies the given update to the copy of the current webhooks, and publishes the copy as the new
+     * snapshot. The updates are serialized, so none of them is lost.
+     *
+     * @param update Update of the webhooks.
+     * @return Result of the update.
+     */
+    private synchronized boolean updateWebhooks(Predicate<IndexedSet<Long, Webhook>> update) {
+        IndexedSet<Long, Webhook> updated = new IndexedSet<>(Webhook.class, Webhook::getId, webhooks);
+        boolean result = update.test(updated);
+        webhooks = updated;
+
+        return result;
+    }
+
+    /**
+     * Invokes the Semaphore API in order to collect project servers. The statuses of the servers are
+     * requested concurrently; the servers whose status request failed are left out, and their
+     * failures are kept for {@link #getServerFailures()}.
      *
      * @return Collection of project servers.
+     * @throws IOException If an error occurs while listing the servers, or none of the server status
+     *                     requests succeeded.
+     */
+    private ServerSnapshot doGetServers() throws IOException {
+        return toSnapshot(ParallelFetch.fetchAll(listServers(), this::fetchServer), null);
+    }
+
+    /**
+     * Loads the servers of the given projects which have not been loaded yet, in two rounds of
+     * concurrent requests shared by all the projects: first the server lists, then the statuses of
+     * all the listed servers. Unlike loading the servers of each project on its own, the given
+     * concurrency then bounds all the requests.
+     *
+     * @param projects    Projects to load the servers of.
+     * @param concurrency Maximum number of the requests in flight at once.
+     * @param deadline    Deadline, as {@link System#nanoTime()}, or {@link Long#MAX_VALUE} for none.
+     * @throws IOException If listing the servers of a project failed, none of the server status
+     *                     requests of a project succeeded, or the deadline has passed.
+     */
+    static void loadServers(Collection<Project> projects, int concurrency, long deadline) throws IOException {
+        List<Project> pending = new ArrayList<>();
+        projects.stream().filter(project -> project.servers == null).forEach(pending::add);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        ParallelFetch.Results<Project, List<ProjectServer>> lists = ParallelFetch.fetchAll(pending, Project::listServers, concurrency, deadline);
+        lists.throwIfAnyFailed();
+
+        Map<ProjectServer, Project> owners = new LinkedHashMap<>();
+        lists.getValues().forEach((project, projectServers) -> projectServers.forEach(ps -> owners.put(ps, project)));
+        ParallelFetch.Results<ProjectServer, Server> statuses = ParallelFetch.fetchAll(owners.keySet(),
+            ps -> owners.get(ps).fetchServer(ps), concurrency, deadline);
+
+        for (Map.Entry<Project, List<ProjectServer>> entry : lists.getValues().entrySet()) {
+            ServerSnapshot snapshot = entry.getKey().toSnapshot(new ParallelFetch.Results<>(entry.getValue(), statuses.getValues(), statuses.getFailures()), null);
+            if (entry.getKey().servers == null) {
+                entry.getKey().servers = snapshot;
+            }
+        }
+    }
+
+    /**
+     * Lists the servers of this project, without their status.
+     *
+     * @return Servers of this project.
      * @throws IOException If an error occurs during Semaphore API request.
      */
-    private Set<Server> doGetServers() throws IOException {
-        List<ProjectServer> projectServers = client.getList(getServersUrl(), ProjectServer.class);
-        Set<Server> servers = new HashSet<>();
+    private List<ProjectServer> listServers() throws IOException {
+        return client.getList(getServersUrl(), ProjectServer.class);
+    }
 
-        for (ProjectServer ps : projectServers) {
-            Server server = client.get(ps.getStatusUrl(), Server.class);
+    /**
+     * Requests the status of the given server of this project.
+     *
+     * @param projectServer Server of this project.
+     * @return Server status.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    private Server fetchServer(ProjectServer projectServer) throws IOException {
+        return client.get(projectServer.getStatusUrl(), Server.class);
+    }
+
+    /**
+     * Binds the fetched servers to the client of this project, and collects them along with the
+     * servers of the given snapshot, and the failures of the servers failed to load.
+     *
+     * @param results  Results of the server status requests.
+     * @param previous Snapshot whose failed servers have been requested, or {@code null} for the first load.
+     * @return Loaded servers, along with the failures.
+     * @throws IOException If none of the server status requests of the first load succeeded.
+     */
+    private ServerSnapshot toSnapshot(ParallelFetch.Results<ProjectServer, Server> results, ServerSnapshot previous) throws IOException {
+        if (previous == null) {
+            results.throwIfAllFailed();
+        }
+
+        Map<String, IOException> failures = new LinkedHashMap<>();
+        results.getFailures().forEach((ps, exception) -> failures.put(ps.getName() != null ? ps.getName() : ps.getStatusUrl(), exception));
+
+        Set<Server> servers = previous != null ? new HashSet<>(previous.servers) : new HashSet<>();
+        for (Server server : results.getValues().values()) {
             server.setClient(client);
             servers.add(server);
         }
 
-        return servers;
+        return new ServerSnapshot(Collections.unmodifiableSet(servers), Collections.unmodifiableMap(failures),
+            Collections.unmodifiableList(new ArrayList<>(results.getFailures().keySet())));
     }
 
     /**
@@ -257,8 +498,8 @@ public class Project extends Model {
      * @return Collection of project webhooks.
      * @throws IOException If an error occurs during Semaphore API request.
      */
-    private Set<Webhook> doGetWebhooks() throws IOException {
-        Set<Webhook> webhooks = new HashSet<>(client.getList(getWebhooksUrl(), Webhook.class));
+    private IndexedSet<Long, Webhook> doGetWebhooks() throws IOException {
+        IndexedSet<Long, Webhook> webhooks = new IndexedSet<>(Webhook.class, Webhook::getId, client.getList(getWebhooksUrl(), Webhook.class));
         webhooks.forEach(webhook -> webhook.setClient(client));
 
         return webhooks;
@@ -286,14 +527,44 @@ public class Project extends Model {
     public int hashCode() {
         return Objects.hash(id, hashId);
     }
+
+    /**
+     * Loaded servers along with the failures of the servers failed to load, published together so
+     * that the readers never see the servers of one load with the failures of another. The failed
+     * servers are kept to be requested again.
+     */
+    private static final class ServerSnapshot {
+
+        private final Set<Server> servers;
+        private final Map<String, IOException> failures;
+        private final List<ProjectServer> failed;
+
+        private ServerSnapshot(Set<Server> servers, Map<String, IOException> failures, List<ProjectServer> failed) {
+            this.servers = servers;
+            this.failures = failures;
+            this.failed = failed;
+        }
+
+    }
 }
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 class ProjectServer extends Model {
 
+    @JsonProperty("name")
+    private String name;
     @JsonProperty("server_url")
     private String statusUrl;
 
+    /**
+     * Returns the server name.
+     *
+     * @return Server name.
+     */
+    public String getName() {
+        return name;
+    }
+
     /**
      * Returns the server status URL.
      *
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+/**
+ * Defines how a {@link Model#refresh(RefreshMode) refresh} applies the fresh data to the model.
+ *
+ * @author sokolovic
+ */
+public enum RefreshMode {
+
+    /**
+     * Replaces the refreshed collections with the freshly loaded instances, which are loaded in full.
+     */
+    REPLACE,
+
+    /**
+     * Reconciles the fresh data into the instances held already, matched by their identity key (e.g.
+     * the build number, the commit id or the thread number). The held instances are updated in place and
+     * keep the children they have loaded, only the new instances are added, and the collections which
+     * have not been loaded yet stay lazy. References kept by the callers thus stay up to date.
+     */
+    RECONCILE
+
+}
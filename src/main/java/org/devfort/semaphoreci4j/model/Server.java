@@ -4,7 +4,10 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author sokolovic
@@ -27,7 +30,10 @@ public class Server extends Model {
     @JsonProperty("branch_name")
     private String branchName;
 
-    private Set<Deploy> deploys;
+    private static final Comparator<Deploy> NEWEST_FIRST = Comparator.comparing(Deploy::getNumber).reversed();
+
+    private volatile NumberedHistory<Deploy> deploys;
+    private volatile NumberedHistory<Deploy> latestDeploys;
 
     /**
      * Returns the server name.
@@ -93,16 +99,93 @@ public class Server extends Model {
     }
 
     /**
-     * Returns the server deploys.
+     * Returns the server deploys. The returned set is an unmodifiable snapshot; stopping a deploy
+     * publishes a new snapshot, rather than modifying it.
      *
-     * @return Server deploys.
+     * @return Server deploys, sorted by their number.
      * @throws IOException If an error occurs during Semaphore API request.
+     * @see #getDeployHistory()
      */
     public Set<Deploy> getDeploys() throws IOException {
-        if (deploys == null) {
-            deploys = doGetDeploys();
+        return getDeployHistory();
+    }
+
+    /**
+     * Returns the server deploys as the history ordered by their number, which also offers the lookup
+     * of a deploy by its number and the range queries. Like {@link #getDeploys()}, the returned history
+     * is an unmodifiable snapshot.
+     *
+     * @return Server deploy history.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    public NumberedHistory<Deploy> getDeployHistory() throws IOException {
+        NumberedHistory<Deploy> current = deploys;
+        if (current == null) {
+            current = publishIfAbsent(doGetDeploys());
         }
-        return deploys;
+        return current;
+    }
+
+    /**
+     * Returns the given number of the latest server deploys. Unless the whole history has been loaded,
+     * only the latest deploys are loaded, requesting as few pages of the server history as possible,
+     * and kept apart from the whole history, which {@link #getDeploys()} still loads in full.
+     *
+     * @param count Number of the latest deploys to return.
+     * @return Latest deploys, newest first.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    public List<Deploy> getLatestDeploys(int count) throws IOException {
+        NumberedHistory<Deploy> current = deploys;
+        if (current != null) {
+            return current.latest(count);
+        }
+
+        NumberedHistory<Deploy> held = latestDeploys;
+        NumberedHistory<Deploy> window = held;
+        if (window == null || window.size() < count) {
+            try {
+                window = newDeployHistory(newDeployIterator().stream().limit(count).collect(Collectors.toList())).freeze();
+            } catch (UncheckedIOException exception) {
+                throw exception.getCause();
+            }
+            if (window.size() < count) {
+                // fewer than requested means the whole history
+                publishIfAbsent(window);
+            } else {
+                publishWindow(held, window);
+            }
+        }
+        return window.latest(count);
+    }
+
+    /**
+     * Returns the iterator over the server deploys, starting with the latest one. Pages of the server
+     * history are requested only as the iteration advances, so iterating over the few latest deploys
+     * costs a single request. If the server deploys have already been loaded, no request is made.
+     *
+     * @return Iterator over the server deploys, newest first.
+     */
+    public Iterator<Deploy> deployIterator() {
+        NumberedHistory<Deploy> current = deploys;
+        if (current != null) {
+            return current.descendingIterator();
+        }
+        return newDeployIterator();
+    }
+
+    /**
+     * Returns the lazy stream of the server deploys, starting with the latest one.
+     *
+     * @return Stream of the server deploys, newest first.
+     * @see #deployIterator()
+     */
+    public Stream<Deploy> streamDeploys() {
+        NumberedHistory<Deploy> current = deploys;
+        if (current != null) {
+            return current.latest(current.size()).stream();
+        }
+        return newDeployIterator().stream();
     }
 
     /**
@@ -113,7 +196,8 @@ public class Server extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Optional<Deploy> getDeploy(Long number) throws IOException {
-        return getDeploys().stream().filter(deploy -> Objects.equals(deploy.getNumber(), number)).findFirst();
+        NumberedHistory<Deploy> current = getDeployHistory();
+        return Optional.ofNullable(number != null ? current.get(number) : null);
     }
 
     /**
@@ -123,7 +207,11 @@ public class Server extends Model {
      * @throws IOException If an error occurs during Semaphore API request.
      */
     public Optional<Deploy> getServerStatus() throws IOException {
-        return getDeploys().stream().max(Comparator.comparingLong(Deploy::getNumber));
+        NumberedHistory<Deploy> window = latestDeploys;
+        if (deploys == null && window != null) {
+            return Optional.ofNullable(window.getLatest());
+        }
+        return Optional.ofNullable(getDeployHistory().getLatest());
     }
 
     /**
@@ -133,28 +221,177 @@ public class Server extends Model {
      * @return Stopped deploy.
      */
     public Deploy stopDeploy(Deploy deploy) throws IOException {
-        if (!deploys.contains(deploy)) {
+        if (!getDeploys().contains(deploy)) {
             return null;
         }
         Deploy stoppedDeploy = client.get(getStopDeployUrl(deploy), Deploy.class);
         stoppedDeploy.setClient(client);
-        getDeploys().remove(deploy);
-        getDeploys().add(stoppedDeploy);
+
+        synchronized (this) {
+            NumberedHistory<Deploy> updated = newDeployHistory(deploys);
+            updated.remove(deploy);
+            updated.add(stoppedDeploy);
+            deploys = updated.freeze();
+        }
 
         return stoppedDeploy;
     }
 
+    /**
+     * Applies the state of the given deploy, notified out of band (e.g. by a webhook), to the loaded
+     * deploys. A held deploy is updated in place, without any request; for a deploy which is not held
+     * yet, the deploys are refreshed. Nothing is done until the deploys, or the latest of them, have
+     * been loaded.
+     *
+     * @param notified Current state of a deploy to this server.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    public void update(Deploy notified) throws IOException {
+        NumberedHistory<Deploy> current = deploys != null ? deploys : latestDeploys;
+        if (current == null) {
+            return;
+        }
+
+        Deploy held = current.get(notified.getNumber());
+        if (held != null) {
+            held.reconcile(notified);
+        } else {
+            refresh(RefreshMode.RECONCILE);
+        }
+    }
+
+    /**
+     * Refreshes the server deploys, if they have been loaded. Only the pages of the server history with
+     * the new or still running deploys are requested; the first page is always requested. If only the
+     * {@link #getLatestDeploys(int) latest deploys} have been loaded, those are refreshed.
+     *
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    @Override
+    public void refresh() throws IOException {
+        refresh(RefreshMode.REPLACE);
+    }
+
+    /**
+     * Refreshes the server deploys, the same way as {@link #refresh()} does. When reconciling, the held
+     * deploys which are still running are updated in place instead of being replaced, and the history
+     * is replaced only if new deploys have been added.
+     *
+     * @param mode Way of applying the fresh data to the server.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    @Override
+    public void refresh(RefreshMode mode) throws IOException {
+        NumberedHistory<Deploy> current = deploys;
+        if (current == null) {
+            NumberedHistory<Deploy> window = latestDeploys;
+            if (window != null) {
+                publishWindow(window, sync(window, mode));
+            }
+            return;
+        }
+
+        NumberedHistory<Deploy> synced = sync(current, mode);
+        synchronized (this) {
+            // keep the snapshot published meanwhile, e.g. by stopping a deploy
+            if (deploys == current) {
+                deploys = synced;
+            }
+        }
+    }
+
+    /**
+     * Brings the given deploys up to date with the server history.
+     *
+     * @param current Deploys to bring up to date.
+     * @param mode    Way of applying the fresh data to the deploys.
+     * @return Deploys brought up to date.
+     * @throws IOException If an error occurs during Semaphore API request.
+     */
+    private NumberedHistory<Deploy> sync(NumberedHistory<Deploy> current, RefreshMode mode) throws IOException {
+        try {
+            return mode == RefreshMode.REPLACE
+                ? current.sync(newDeployIterator(), Deploy::isFinished)
+                : current.sync(newDeployIterator(), Deploy::isFinished, (held, fresh) -> {
+                    held.reconcile(fresh);
+                    return held;
+                });
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
+
     /**
      * Invokes the Semaphore API in order to collect server deploys.
      *
      * @return Collection of server deploys.
      * @throws IOException If an error occurs during Semaphore API request.
      */
-    private Set<Deploy> doGetDeploys() throws IOException {
+    private NumberedHistory<Deploy> doGetDeploys() throws IOException {
         ServerHistory history = client.get(this.historyUrl, ServerHistory.class);
-        history.getDeploys().forEach(deploy -> deploy.setClient(client));
 
-        return history.getDeploys();
+        // keep the latest deploys loaded already, updated with their fresh state
+        NumberedHistory<Deploy> window = latestDeploys;
+        List<Deploy> bound = new ArrayList<>();
+        for (Deploy deploy : history.getDeploys()) {
+            Deploy held = window != null ? window.get(deploy.getNumber()) : null;
+            if (held != null) {
+                held.reconcile(deploy);
+                bound.add(held);
+            } else {
+                deploy.setClient(client);
+                bound.add(deploy);
+            }
+        }
+
+        return newDeployHistory(bound).freeze();
+    }
+
+    /**
+     * Publishes the loaded deploys, unless the deploys have been published meanwhile (e.g. by another
+     * thread which stopped a deploy), so the newer snapshot is not overwritten.
+     *
+     * @param loaded Loaded deploys.
+     * @return Published deploys.
+     */
+    private synchronized NumberedHistory<Deploy> publishIfAbsent(NumberedHistory<Deploy> loaded) {
+        if (deploys == null) {
+            deploys = loaded;
+            latestDeploys = null;
+        }
+        return deploys;
+    }
+
+    /**
+     * Publishes the given latest deploys, replacing the given ones, unless the latest deploys have been
+     * replaced meanwhile, or the whole history has been published.
+     *
+     * @param current Latest deploys replaced, or {@code null} if there were none.
+     * @param window  Latest deploys to publish.
+     */
+    private synchronized void publishWindow(NumberedHistory<Deploy> current, NumberedHistory<Deploy> window) {
+        if (deploys == null && latestDeploys == current) {
+            latestDeploys = window;
+        }
+    }
+
+    /**
+     * Creates the history of the given deploys, sorted by the deploy number.
+     *
+     * @param deploys Deploys of the server, may be {@code null}.
+     * @return History of the server deploys.
+     */
+    static NumberedHistory<Deploy> newDeployHistory(Collection<Deploy> deploys) {
+        return new NumberedHistory<>(Deploy.class, Deploy::getNumber, deploys != null ? deploys : Collections.emptyList());
+    }
+
+    /**
+     * Creates the iterator requesting the pages of the server history.
+     *
+     * @return New iterator over the server history.
+     */
+    private PagedIterator<ServerHistory, Deploy> newDeployIterator() {
+        return new PagedIterator<>(client, this.historyUrl, ServerHistory.class, ServerHistory::getDeploys, NEWEST_FIRST);
     }
 
     /**
@@ -192,16 +429,23 @@ public class Server extends Model {
 class ServerHistory extends Model {
 
     @JsonProperty("deploys")
-    private Set<Deploy> deploys;
+    private NumberedHistory<Deploy> deploys = Server.newDeployHistory(null);
 
-    public Set<Deploy> getDeploys() {
+    public NumberedHistory<Deploy> getDeploys() {
         return deploys;
     }
 
+    @JsonProperty("deploys")
+    private void setDeploys(List<Deploy> deploys) {
+        this.deploys = Server.newDeployHistory(deploys);
+    }
+
     @Override
     public Model merge(Model other) {
-        this.deploys.addAll(((ServerHistory) other).getDeploys());
+        ServerHistory merged = new ServerHistory();
+        merged.deploys = Server.newDeployHistory(this.deploys);
+        merged.deploys.addAll(((ServerHistory) other).getDeploys());
 
-        return this;
+        return merged;
     }
 }
\ No newline at end of file
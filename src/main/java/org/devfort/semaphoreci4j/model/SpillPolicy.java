@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Policy of spilling the large command output to the disk, when the build (or deploy) threads are
+ * loaded with {@link Build#getThreads(SpillPolicy)}:
+ * <pre>{@code
+ * SpillPolicy policy = new SpillPolicy.Builder()
+ *     .threshold(1024 * 1024)
+ *     .directory(Paths.get("/var/tmp/semaphore"))
+ *     .build();
+ * }</pre>
+ * The output longer than the threshold is written to a file while the log is being received, instead
+ * of being kept on the heap, and is then accessed through a memory-mapped {@link CommandOutput}.
+ *
+ * @author sokolovic
+ */
+public final class SpillPolicy {
+
+    private final long threshold;
+    private final Path directory;
+
+    private SpillPolicy(Builder builder) {
+        this.threshold = builder.threshold;
+        this.directory = builder.directory;
+    }
+
+    /**
+     * Returns the policy with the default settings.
+     *
+     * @return Default spill policy.
+     */
+    public static SpillPolicy defaults() {
+        return new Builder().build();
+    }
+
+    long getThreshold() {
+        return threshold;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SpillPolicy that = (SpillPolicy) o;
+        return threshold == that.threshold &&
+                Objects.equals(directory, that.directory);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(threshold, directory);
+    }
+
+    /**
+     * Builder of the {@link SpillPolicy} instances.
+     */
+    public static class Builder {
+
+        long threshold = 1024 * 1024;
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"));
+
+        /**
+         * Sets the length of the output, in characters, above which it is spilled to the disk. Defaults
+         * to 1M characters.
+         *
+         * @param threshold Maximum length of the output kept on the heap.
+         * @return This builder.
+         */
+        public Builder threshold(long threshold) {
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * Sets the directory the output is spilled to. Defaults to the temporary directory of the
+         * system.
+         *
+         * @param directory Directory of the spilled output.
+         * @return This builder.
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Builds the configured policy.
+         *
+         * @return New {@link SpillPolicy} instance.
+         */
+        public SpillPolicy build() {
+            return new SpillPolicy(this);
+        }
+
+    }
+
+}
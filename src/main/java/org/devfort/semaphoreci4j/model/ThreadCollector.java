@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.model;
+
+import org.devfort.semaphoreci4j.client.SemaphoreHttpConnection;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Visitor collecting the streamed log into the threads and their commands, spilling the large command
+ * output to the disk as defined by the {@link SpillPolicy}. Not thread-safe; each log is collected by
+ * its own instance.
+ *
+ * @author sokolovic
+ */
+final class ThreadCollector implements LogVisitor {
+
+    private final SpillPolicy policy;
+    private final SemaphoreHttpConnection client;
+    private final Set<BuildThread> threads = new LinkedHashSet<>();
+    private final StringBuilder output = new StringBuilder();
+    private Set<Command> commands;
+    private CommandOutput.Spill spill;
+    private boolean hasOutput;
+
+    /**
+     * Argument constructor.
+     *
+     * @param policy Policy of spilling the command output.
+     * @param client Client to bind the collected threads to.
+     */
+    ThreadCollector(SpillPolicy policy, SemaphoreHttpConnection client) {
+        this.policy = policy;
+        this.client = client;
+    }
+
+    /**
+     * Collects the log of the given build or deploy.
+     *
+     * @param log Function streaming the log to the visitor, e.g. {@link Build#streamLog(LogVisitor)}.
+     * @return Collected threads.
+     * @throws IOException If an error occurs during Semaphore API request, or while spilling the output.
+     */
+    Set<BuildThread> collect(LogStream log) throws IOException {
+        try {
+            log.stream(this);
+        } finally {
+            if (spill != null) {
+                spill.close();
+                spill = null;
+            }
+        }
+        return Collections.unmodifiableSet(threads);
+    }
+
+    @Override
+    public void startThread(int index) {
+        commands = new LinkedHashSet<>();
+    }
+
+    @Override
+    public void startCommand(int index) {
+        output.setLength(0);
+        hasOutput = false;
+    }
+
+    @Override
+    public void output(char[] chunk, int offset, int length) throws IOException {
+        hasOutput = true;
+        if (spill != null) {
+            spill.write(chunk, offset, length);
+            return;
+        }
+
+        output.append(chunk, offset, length);
+        if (output.length() > policy.getThreshold()) {
+            spill = new CommandOutput.Spill(policy.getDirectory(), output);
+            output.setLength(0);
+            output.trimToSize();
+        }
+    }
+
+    @Override
+    public void endCommand(Command command) throws IOException {
+        Command collected;
+        if (spill != null) {
+            CommandOutput.Spill finished = spill;
+            spill = null;
+            collected = new Command(command, null, finished.finish());
+        } else {
+            collected = new Command(command, hasOutput ? output.toString() : null, null);
+        }
+        collected.setClient(client);
+        commands.add(collected);
+    }
+
+    @Override
+    public void endThread(BuildThread thread) {
+        BuildThread collected = new BuildThread(thread.getNumber(), commands);
+        collected.setClient(client);
+        threads.add(collected);
+    }
+
+    /**
+     * Function streaming the log to the given visitor.
+     */
+    @FunctionalInterface
+    interface LogStream {
+
+        void stream(LogVisitor visitor) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.watch;
+
+import org.devfort.semaphoreci4j.model.Branch;
+import org.devfort.semaphoreci4j.model.Build;
+import org.devfort.semaphoreci4j.model.Deploy;
+import org.devfort.semaphoreci4j.model.Model;
+import org.devfort.semaphoreci4j.model.Server;
+
+/**
+ * Change of a watched branch or server, spotted by the {@link RefreshScheduler} between two polls.
+ *
+ * @author sokolovic
+ */
+public abstract class ChangeEvent {
+
+    private final Model source;
+
+    ChangeEvent(Model source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns the watched model the change happened on.
+     *
+     * @return {@link Branch} or {@link Server} the change happened on.
+     */
+    public Model getSource() {
+        return source;
+    }
+
+    /**
+     * A new build of the watched branch has appeared.
+     */
+    public static final class BuildStarted extends ChangeEvent {
+
+        private final Build build;
+
+        BuildStarted(Branch branch, Build build) {
+            super(branch);
+            this.build = build;
+        }
+
+        public Branch getBranch() {
+            return (Branch) getSource();
+        }
+
+        public Build getBuild() {
+            return build;
+        }
+
+        @Override
+        public String toString() {
+            return "BuildStarted{branch=" + getBranch().getName() + ", build=" + build.getNumber() + "}";
+        }
+
+    }
+
+    /**
+     * A build of the watched branch has finished.
+     */
+    public static final class BuildFinished extends ChangeEvent {
+
+        private final Build build;
+        private final String result;
+
+        BuildFinished(Branch branch, Build build) {
+            super(branch);
+            this.build = build;
+            this.result = build.getResult();
+        }
+
+        public Branch getBranch() {
+            return (Branch) getSource();
+        }
+
+        public Build getBuild() {
+            return build;
+        }
+
+        /**
+         * Returns the result the build has finished with.
+         *
+         * @return Build result.
+         */
+        public String getResult() {
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "BuildFinished{branch=" + getBranch().getName() + ", build=" + build.getNumber() + ", result=" + result + "}";
+        }
+
+    }
+
+    /**
+     * A new deploy to the watched server has appeared.
+     */
+    public static final class DeployStarted extends ChangeEvent {
+
+        private final Deploy deploy;
+
+        DeployStarted(Server server, Deploy deploy) {
+            super(server);
+            this.deploy = deploy;
+        }
+
+        public Server getServer() {
+            return (Server) getSource();
+        }
+
+        public Deploy getDeploy() {
+            return deploy;
+        }
+
+        @Override
+        public String toString() {
+            return "DeployStarted{server=" + getServer().getName() + ", deploy=" + deploy.getNumber() + "}";
+        }
+
+    }
+
+    /**
+     * A deploy to the watched server has finished.
+     */
+    public static final class DeployFinished extends ChangeEvent {
+
+        private final Deploy deploy;
+        private final String result;
+
+        DeployFinished(Server server, Deploy deploy) {
+            super(server);
+            this.deploy = deploy;
+            this.result = deploy.getResult();
+        }
+
+        public Server getServer() {
+            return (Server) getSource();
+        }
+
+        public Deploy getDeploy() {
+            return deploy;
+        }
+
+        /**
+         * Returns the result the deploy has finished with.
+         *
+         * @return Deploy result.
+         */
+        public String getResult() {
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "DeployFinished{server=" + getServer().getName() + ", deploy=" + deploy.getNumber() + ", result=" + result + "}";
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.watch;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bounded queue of the {@link ChangeEvent change events}, delivering them to the listeners on a
+ * dedicated thread.
+ * <p>
+ * The pollers never wait for the listeners: the changes spotted by a poll are queued all at once, or
+ * not at all if there is no room left for them. The poller then keeps its previous snapshot as the
+ * baseline, so the changes are spotted again, merged with the newer ones, by its next poll. A slow
+ * listener thus delays the events, but neither stalls the polls nor loses the events.
+ *
+ * @author sokolovic
+ */
+final class EventQueue implements Closeable {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final int capacity;
+    private final Deque<ChangeEvent> events = new ArrayDeque<>();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread dispatcher;
+    private boolean closed;
+
+    /**
+     * Argument constructor.
+     *
+     * @param capacity Maximum number of the queued events.
+     */
+    EventQueue(int capacity) {
+        this.capacity = capacity;
+        this.dispatcher = new ThreadFactoryBuilder()
+            .setNameFormat("semaphore-events-%d")
+            .setDaemon(true)
+            .build()
+            .newThread(this::dispatch);
+        this.dispatcher.start();
+    }
+
+    void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Queues the given events, unless there is no room left for all of them. A batch larger than the
+     * capacity is queued only once the queue is empty.
+     *
+     * @param batch Events spotted by a single poll.
+     * @return {@code true} if the events have been queued, or there is no listener to deliver them to.
+     */
+    synchronized boolean offer(List<ChangeEvent> batch) {
+        if (closed || listeners.isEmpty()) {
+            return true;
+        }
+        if (!events.isEmpty() && events.size() + batch.size() > capacity) {
+            return false;
+        }
+        events.addAll(batch);
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Stops delivering the events; the events still queued are discarded.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        events.clear();
+        notifyAll();
+    }
+
+    /**
+     * Takes the next event, waiting for one to be queued.
+     *
+     * @return Next event, or {@code null} once the queue is closed.
+     * @throws InterruptedException If the dispatching thread is interrupted.
+     */
+    private synchronized ChangeEvent take() throws InterruptedException {
+        while (events.isEmpty() && !closed) {
+            wait();
+        }
+        return events.poll();
+    }
+
+    /**
+     * Delivers the queued events to the listeners, until the queue is closed.
+     */
+    private void dispatch() {
+        try {
+            ChangeEvent event;
+            while ((event = take()) != null) {
+                for (ChangeListener listener : listeners) {
+                    try {
+                        listener.onChange(event);
+                    } catch (RuntimeException exception) {
+                        LOGGER.warn("Listener failed to handle {}", event, exception);
+                    }
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
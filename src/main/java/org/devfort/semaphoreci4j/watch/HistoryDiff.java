@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.watch;
+
+import org.devfort.semaphoreci4j.model.Model;
+import org.devfort.semaphoreci4j.model.NumberedHistory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Computes the changes between the successive snapshots of a history, e.g. the builds of a branch.
+ * <p>
+ * Only the numbers of the latest entry and of the running ones are kept from the previous snapshot:
+ * a finished entry can no longer change, so only the entries newer than the latest one, and the ones
+ * which were running, are compared. Not thread-safe; each watch computes its own changes.
+ *
+ * @param <E> Type of the history entries.
+ * @author sokolovic
+ */
+final class HistoryDiff<E extends Model> {
+
+    private final ToLongFunction<E> number;
+    private final Function<E, ChangeEvent> started;
+    private final Function<E, ChangeEvent> finished;
+
+    private boolean initialized;
+    private long latest = Long.MIN_VALUE;
+    private SortedSet<Long> running = Collections.emptySortedSet();
+
+    /**
+     * Argument constructor.
+     *
+     * @param number   Function returning the number of an entry.
+     * @param started  Function creating the event of a started entry.
+     * @param finished Function creating the event of a finished entry.
+     */
+    HistoryDiff(ToLongFunction<E> number, Function<E, ChangeEvent> started, Function<E, ChangeEvent> finished) {
+        this.number = number;
+        this.started = started;
+        this.finished = finished;
+    }
+
+    /**
+     * Computes the changes between the last committed snapshot and the given one. The first snapshot
+     * is the baseline: only its running entries are reported, as started.
+     *
+     * @param history Current snapshot of the history.
+     * @return Changes, which become the baseline of the next snapshot once committed.
+     */
+    Changes diff(NumberedHistory<E> history) {
+        List<ChangeEvent> events = new ArrayList<>();
+        SortedSet<Long> nextRunning = new TreeSet<>();
+
+        for (Long runningNumber : running) {
+            E entry = history.get(runningNumber);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.isFinished()) {
+                events.add(finished.apply(entry));
+            } else {
+                nextRunning.add(runningNumber);
+            }
+        }
+
+        long nextLatest = latest;
+        List<E> added = latest == Long.MAX_VALUE ? Collections.emptyList() : history.between(latest + 1, Long.MAX_VALUE);
+        for (E entry : added) {
+            boolean entryFinished = entry.isFinished();
+            if (initialized || !entryFinished) {
+                events.add(started.apply(entry));
+            }
+            if (!entryFinished) {
+                nextRunning.add(number.applyAsLong(entry));
+            } else if (initialized) {
+                events.add(finished.apply(entry));
+            }
+            nextLatest = number.applyAsLong(entry);
+        }
+        return new Changes(events, nextLatest, nextRunning);
+    }
+
+    /**
+     * Changes between two snapshots of the history.
+     */
+    final class Changes {
+
+        private final List<ChangeEvent> events;
+        private final long latest;
+        private final SortedSet<Long> running;
+
+        private Changes(List<ChangeEvent> events, long latest, SortedSet<Long> running) {
+            this.events = events;
+            this.latest = latest;
+            this.running = running;
+        }
+
+        List<ChangeEvent> getEvents() {
+            return events;
+        }
+
+        /**
+         * Makes the snapshot these changes have been computed for the baseline of the next one.
+         */
+        void commit() {
+            HistoryDiff.this.initialized = true;
+            HistoryDiff.this.latest = latest;
+            HistoryDiff.this.running = running;
+        }
+
+    }
+
+}
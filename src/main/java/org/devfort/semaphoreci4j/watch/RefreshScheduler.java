@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.watch;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.devfort.semaphoreci4j.model.Branch;
+import org.devfort.semaphoreci4j.model.Build;
+import org.devfort.semaphoreci4j.model.Deploy;
+import org.devfort.semaphoreci4j.model.Model;
+import org.devfort.semaphoreci4j.model.NumberedHistory;
+import org.devfort.semaphoreci4j.model.RefreshMode;
+import org.devfort.semaphoreci4j.model.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler refreshing the watched branches and servers in the background, on a small fixed pool of
+ * threads.
+ * <p>
+ * The interval between the polls of a model adapts to its activity: while its latest build (or
+ * deploy) is running, or a new one has just appeared, the model is polled every active interval;
+ * otherwise, the interval grows exponentially up to the maximum one. Each interval is randomized by the
+ * configured jitter, so that the polls of many models are spread over time instead of being made at
+ * once. The polls are made through the clients of the models, so they share the rate limit of the
+ * client, if one has been configured.
+ * <p>
+ * The builds and deploys which have started or finished between two polls are reported to the
+ * registered {@link ChangeListener listeners} as {@link ChangeEvent change events}, through a bounded
+ * queue which never makes the polls wait for the listeners.
+ *
+ * @author sokolovic
+ */
+public class RefreshScheduler implements Closeable {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private final ScheduledExecutorService executor;
+    private final long activeInterval;
+    private final long maxInterval;
+    private final double multiplier;
+    private final double jitter;
+    private final RefreshMode refreshMode;
+    private final EventQueue events;
+    private final Map<Model, Watch> watches = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private RefreshScheduler(Builder builder) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(builder.threads, new ThreadFactoryBuilder()
+            .setNameFormat("semaphore-refresh-%d")
+            .setDaemon(true)
+            .build());
+        executor.setRemoveOnCancelPolicy(true);
+
+        this.executor = executor;
+        this.activeInterval = builder.activeInterval;
+        this.maxInterval = builder.maxInterval;
+        this.multiplier = builder.multiplier;
+        this.jitter = builder.jitter;
+        this.refreshMode = builder.refreshMode;
+        this.events = new EventQueue(builder.eventQueueCapacity);
+    }
+
+    /**
+     * Starts watching the given branch, unless it is being watched already.
+     *
+     * @param branch Branch to watch.
+     * @return Watch of the branch.
+     */
+    public Watch watch(Branch branch) {
+        return watch(branch, branch::getBuildHistory, new HistoryDiff<>(Build::getNumber,
+            build -> new ChangeEvent.BuildStarted(branch, build),
+            build -> new ChangeEvent.BuildFinished(branch, build)));
+    }
+
+    /**
+     * Starts watching the given server, unless it is being watched already.
+     *
+     * @param server Server to watch.
+     * @return Watch of the server.
+     */
+    public Watch watch(Server server) {
+        return watch(server, server::getDeployHistory, new HistoryDiff<>(Deploy::getNumber,
+            deploy -> new ChangeEvent.DeployStarted(server, deploy),
+            deploy -> new ChangeEvent.DeployFinished(server, deploy)));
+    }
+
+    /**
+     * Registers the listener of the changes of the watched models.
+     *
+     * @param listener Listener to register.
+     */
+    public void addListener(ChangeListener listener) {
+        events.addListener(listener);
+    }
+
+    /**
+     * Unregisters the given listener.
+     *
+     * @param listener Listener to unregister.
+     */
+    public void removeListener(ChangeListener listener) {
+        events.removeListener(listener);
+    }
+
+    /**
+     * Returns the models being watched.
+     *
+     * @return Watched models.
+     */
+    public List<Model> getWatched() {
+        synchronized (watches) {
+            return new ArrayList<>(watches.keySet());
+        }
+    }
+
+    /**
+     * Stops watching all the models, and shuts the pool of threads down.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        events.close();
+
+        List<Watch> current;
+        synchronized (watches) {
+            current = new ArrayList<>(watches.values());
+        }
+        current.forEach(Watch::cancel);
+    }
+
+    /**
+     * Starts watching the given model, unless it is being watched already.
+     *
+     * @param model   Model to watch.
+     * @param history Function returning the history of the model.
+     * @param diff    Changes of the history.
+     * @param <E>     Type of the history entries.
+     * @return Watch of the model.
+     */
+    private <E extends Model> Watch watch(Model model, Callable<NumberedHistory<E>> history, HistoryDiff<E> diff) {
+        synchronized (watches) {
+            Watch watch = watches.get(model);
+            if (watch == null) {
+                watch = new Watch(model, () -> poll(model, history, diff));
+                watches.put(model, watch);
+                watch.schedule(ThreadLocalRandom.current().nextLong(activeInterval + 1));
+            }
+            return watch;
+        }
+    }
+
+    /**
+     * Refreshes the given model, and queues the changes of its history.
+     *
+     * @param model   Model to refresh.
+     * @param history Function returning the history of the model.
+     * @param diff    Changes of the history.
+     * @param <E>     Type of the history entries.
+     * @return {@code true} if the model is active, i.e. its history has changed, or its latest entry is
+     * running.
+     * @throws Exception If the refresh fails.
+     */
+    private <E extends Model> boolean poll(Model model, Callable<NumberedHistory<E>> history, HistoryDiff<E> diff) throws Exception {
+        NumberedHistory<E> before = history.call();
+        model.refresh(refreshMode);
+        NumberedHistory<E> after = history.call();
+
+        HistoryDiff<E>.Changes changes = diff.diff(after);
+        if (changes.getEvents().isEmpty() || events.offer(changes.getEvents())) {
+            changes.commit();
+        } else {
+            LOGGER.debug("Event queue is full; changes of the watched {} deferred", model.getClass().getSimpleName());
+        }
+
+        E latest = after.getLatest();
+        return after != before || (latest != null && !latest.isFinished());
+    }
+
+    /**
+     * Watch of a single model, adapting the interval between its polls to its activity.
+     */
+    public final class Watch {
+
+        private final Model model;
+        private final Callable<Boolean> poll;
+        private volatile long interval = activeInterval;
+        private volatile ScheduledFuture<?> next;
+        private volatile boolean cancelled;
+
+        private Watch(Model model, Callable<Boolean> poll) {
+            this.model = model;
+            this.poll = poll;
+        }
+
+        /**
+         * Returns the watched model.
+         *
+         * @return Watched {@link Branch} or {@link Server}.
+         */
+        public Model getModel() {
+            return model;
+        }
+
+        /**
+         * Returns the current interval between the polls of the model, before the jitter is applied.
+         *
+         * @param timeUnit Time unit of the interval.
+         * @return Current poll interval.
+         */
+        public long getInterval(TimeUnit timeUnit) {
+            return timeUnit.convert(interval, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Checks whether the watch has been cancelled.
+         *
+         * @return {@code true} if the model is no longer polled.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Stops watching the model. A poll in progress is completed.
+         */
+        public void cancel() {
+            cancelled = true;
+            watches.remove(model, this);
+            ScheduledFuture<?> current = next;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+
+        /**
+         * Refreshes the model, and schedules the next poll according to its activity.
+         */
+        private void poll() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                interval = poll.call() ? activeInterval : backOff();
+            } catch (Exception exception) {
+                LOGGER.warn("Refresh of the watched {} failed: {}", model.getClass().getSimpleName(), exception.getMessage());
+                interval = backOff();
+            }
+            schedule(randomize(interval));
+        }
+
+        /**
+         * Schedules the next poll after the given delay.
+         *
+         * @param delay Delay in milliseconds.
+         */
+        private void schedule(long delay) {
+            if (cancelled) {
+                return;
+            }
+            try {
+                next = executor.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException exception) {
+                cancel();
+            }
+        }
+
+        private long backOff() {
+            return (long) Math.min(maxInterval, interval * multiplier);
+        }
+
+    }
+
+    /**
+     * Reduces the given interval by up to the configured jitter.
+     *
+     * @param interval Interval in milliseconds.
+     * @return Randomized interval in milliseconds.
+     */
+    private long randomize(long interval) {
+        return (long) (interval * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * Builder of the {@link RefreshScheduler} instances.
+     */
+    public static class Builder {
+
+        int threads = 2;
+        long activeInterval = TimeUnit.SECONDS.toMillis(5);
+        long maxInterval = TimeUnit.MINUTES.toMillis(5);
+        double multiplier = 2;
+        double jitter = 0.2;
+        RefreshMode refreshMode = RefreshMode.RECONCILE;
+        int eventQueueCapacity = 1024;
+
+        /**
+         * Sets the number of threads polling the watched models. Defaults to 2.
+         *
+         * @param threads Number of polling threads.
+         * @return This builder.
+         */
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the interval between the polls of an active model, and the maximum interval the polls of
+         * an idle model back off to. Default to 5 seconds and 5 minutes.
+         *
+         * @param activeInterval Interval between the polls of an active model.
+         * @param maxInterval    Maximum interval between the polls of an idle model.
+         * @param timeUnit       Time unit of the intervals.
+         * @return This builder.
+         */
+        public Builder interval(long activeInterval, long maxInterval, TimeUnit timeUnit) {
+            this.activeInterval = timeUnit.toMillis(activeInterval);
+            this.maxInterval = timeUnit.toMillis(maxInterval);
+            return this;
+        }
+
+        /**
+         * Sets the factor the interval grows by after each poll of an idle model, or a failed poll.
+         * Defaults to 2.
+         *
+         * @param multiplier Growth factor of the interval.
+         * @return This builder.
+         */
+        public Builder multiplier(double multiplier) {
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * Sets the randomization of the interval: the interval is reduced by up to the given fraction,
+         * so that the polls of the models watched at once are spread over time. Defaults to 0.2.
+         *
+         * @param jitter Fraction of the interval to randomize, between 0 and 1.
+         * @return This builder.
+         */
+        public Builder jitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Sets the mode the watched models are refreshed in. Defaults to {@link RefreshMode#RECONCILE},
+         * so that the references to the watched models and their builds stay up to date.
+         *
+         * @param refreshMode Refresh mode.
+         * @return This builder.
+         */
+        public Builder refreshMode(RefreshMode refreshMode) {
+            this.refreshMode = refreshMode;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of the change events waiting for the listeners. Once it is reached,
+         * the changes spotted by the polls are deferred until the listeners catch up. Defaults to 1024.
+         *
+         * @param eventQueueCapacity Capacity of the event queue.
+         * @return This builder.
+         */
+        public Builder eventQueueCapacity(int eventQueueCapacity) {
+            this.eventQueueCapacity = eventQueueCapacity;
+            return this;
+        }
+
+        /**
+         * Builds the configured scheduler.
+         *
+         * @return New {@link RefreshScheduler} instance.
+         */
+        public RefreshScheduler build() {
+            return new RefreshScheduler(this);
+        }
+
+    }
+
+}
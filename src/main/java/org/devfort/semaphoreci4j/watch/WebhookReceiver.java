@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2017 devfort
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.devfort.semaphoreci4j.watch;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.devfort.semaphoreci4j.SemaphoreCI;
+import org.devfort.semaphoreci4j.client.MapperRegistry;
+import org.devfort.semaphoreci4j.model.Branch;
+import org.devfort.semaphoreci4j.model.Build;
+import org.devfort.semaphoreci4j.model.Deploy;
+import org.devfort.semaphoreci4j.model.Project;
+import org.devfort.semaphoreci4j.model.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP endpoint receiving the Semaphore webhooks (see {@link Project#createWebhook}), and
+ * applying them to the models loaded by the given {@link SemaphoreCI} instance.
+ * <p>
+ * A build (or deploy) held already is updated in place, without any request to the API; a new one
+ * makes its branch (or server) refresh the first page of its history. The models which have not been
+ * loaded are left as they are. The polling of the watched models (see {@link RefreshScheduler}) may
+ * thus be reduced to an occasional reconciliation, with a long maximum interval.
+ * <p>
+ * The receiver listens on the loopback interface by default. When exposed further, e.g. behind a
+ * reverse proxy, a shared {@link Builder#secret(String) secret} should be configured, so that only the
+ * requests carrying it can change the state of the models.
+ *
+ * @author sokolovic
+ */
+public class WebhookReceiver implements Closeable {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private static final int MAX_PAYLOAD_SIZE = 1024 * 1024;
+    private static final String TOKEN_PARAMETER = "token";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final SemaphoreCI semaphore;
+    private final byte[] secret;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectReader payloadReader;
+    private final ObjectReader buildReader;
+    private final ObjectReader deployReader;
+
+    private WebhookReceiver(Builder builder) throws IOException {
+        MapperRegistry registry = MapperRegistry.getDefault();
+
+        this.semaphore = builder.semaphore;
+        this.secret = builder.secret != null ? builder.secret.getBytes(StandardCharsets.UTF_8) : null;
+        this.payloadReader = registry.readerFor(WebhookPayload.class);
+        this.buildReader = registry.readerFor(Build.class);
+        this.deployReader = registry.readerFor(Deploy.class);
+        this.executor = Executors.newFixedThreadPool(builder.threads, new ThreadFactoryBuilder()
+            .setNameFormat("semaphore-webhooks-%d")
+            .setDaemon(true)
+            .build());
+        this.server = HttpServer.create(builder.address, builder.backlog);
+        this.server.createContext(builder.path, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+
+        if (secret == null && !server.getAddress().getAddress().isLoopbackAddress()) {
+            LOGGER.warn("Webhook receiver listens on {} without a secret", server.getAddress());
+        }
+    }
+
+    /**
+     * Returns the address the receiver listens on.
+     *
+     * @return Bound address, including the actual port if an ephemeral one has been requested.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops receiving the webhooks. The requests in progress are given a second to complete.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Handles the webhook request: {@code 204 No Content} once it has been applied (or ignored), {@code 401}
+     * for a request without the configured secret, {@code 400} for a payload which can't be parsed, and
+     * {@code 500} if applying it failed.
+     *
+     * @param exchange Webhook request.
+     * @throws IOException If an error occurs while responding.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405);
+                return;
+            }
+            if (!isAuthorized(exchange)) {
+                LOGGER.warn("Unauthorized webhook from {} rejected", exchange.getRemoteAddress());
+                respond(exchange, 401);
+                return;
+            }
+
+            byte[] body;
+            try (InputStream input = ByteStreams.limit(exchange.getRequestBody(), MAX_PAYLOAD_SIZE + 1)) {
+                body = ByteStreams.toByteArray(input);
+            }
+            if (body.length > MAX_PAYLOAD_SIZE) {
+                respond(exchange, 413);
+                return;
+            }
+
+            try {
+                apply(body);
+            } catch (JsonProcessingException exception) {
+                LOGGER.warn("Invalid webhook payload: {}", exception.getOriginalMessage());
+                respond(exchange, 400);
+                return;
+            } catch (IOException | RuntimeException exception) {
+                LOGGER.error("Failed to apply the webhook", exception);
+                respond(exchange, 500);
+                return;
+            }
+            respond(exchange, 204);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Checks whether the webhook request carries the configured secret, either as the {@code token} query
+     * parameter of the webhook URL, or as the bearer token of the {@code Authorization} header. Any request
+     * is authorized if no secret has been configured.
+     *
+     * @param exchange Webhook request.
+     * @return Whether the request is authorized.
+     */
+    private boolean isAuthorized(HttpExchange exchange) {
+        if (secret == null) {
+            return true;
+        }
+
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)
+            && matches(authorization.substring(BEARER_PREFIX.length()))) {
+            return true;
+        }
+
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith(TOKEN_PARAMETER + "=")
+                    && matches(decode(parameter.substring(TOKEN_PARAMETER.length() + 1)))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares the given token with the configured secret, in time independent of where they differ.
+     *
+     * @param token Token carried by the request.
+     * @return Whether the token equals the secret.
+     */
+    private boolean matches(String token) {
+        return token != null && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), secret);
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException | IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Applies the given webhook payload to the loaded models.
+     *
+     * @param body Webhook payload.
+     * @throws IOException If the payload can't be parsed, or an error occurs during Semaphore API request.
+     */
+    private void apply(byte[] body) throws IOException {
+        WebhookPayload payload = payloadReader.readValue(body);
+        if (payload.projectHashId == null) {
+            throw new JsonMappingException(null, "Missing project_hash_id");
+        }
+
+        Optional<Project> project = semaphore.getLoadedProjectByHashId(payload.projectHashId);
+        if (!project.isPresent()) {
+            LOGGER.debug("Webhook of an unknown or not loaded project {} ignored", payload.projectHashId);
+            return;
+        }
+
+        if ("build".equals(payload.event) && payload.branchName != null) {
+            Build build = buildReader.readValue(body);
+            Optional<Branch> branch = project.get().getBranch(payload.branchName);
+            if (branch.isPresent() && build.getNumber() != null) {
+                branch.get().update(build);
+            }
+        } else if ("deploy".equals(payload.event) && payload.serverName != null) {
+            Deploy deploy = deployReader.readValue(body);
+            Optional<Set<Server>> servers = project.get().getLoadedServers();
+            if (servers.isPresent() && deploy.getNumber() != null) {
+                for (Server server : servers.get()) {
+                    if (payload.serverName.equals(server.getName())) {
+                        server.update(deploy);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    /**
+     * Builder of the {@link WebhookReceiver} instances.
+     */
+    public static class Builder {
+
+        final SemaphoreCI semaphore;
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 8080);
+        String path = "/";
+        String secret;
+        int threads = 2;
+        int backlog = 0;
+
+        /**
+         * Argument constructor.
+         *
+         * @param semaphore Instance whose models the webhooks are applied to.
+         */
+        public Builder(SemaphoreCI semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        /**
+         * Sets the address to listen on. Defaults to port 8080 on the loopback interface.
+         *
+         * @param address Address to listen on; port 0 picks an ephemeral one.
+         * @return This builder.
+         */
+        public Builder address(InetSocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        /**
+         * Sets the path the webhooks are posted to, i.e. the path of the URL given to
+         * {@link Project#createWebhook}. Defaults to {@code /}.
+         *
+         * @param path Path of the webhook endpoint.
+         * @return This builder.
+         */
+        public Builder path(String path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Sets the secret shared with the webhook sender. Once set, only the requests carrying it, either
+         * as the {@code token} query parameter of the webhook URL given to {@link Project#createWebhook}
+         * (e.g. {@code https://example.com/hooks?token=secret}), or as the bearer token of the
+         * {@code Authorization} header, are applied; the others are rejected with {@code 401}. Not set by
+         * default.
+         *
+         * @param secret Shared secret.
+         * @return This builder.
+         */
+        public Builder secret(String secret) {
+            this.secret = secret;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads handling the webhooks. Defaults to 2.
+         *
+         * @param threads Number of handling threads.
+         * @return This builder.
+         */
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of the pending connections; 0 uses the system default. Defaults to 0.
+         *
+         * @param backlog Maximum number of the pending connections.
+         * @return This builder.
+         */
+        public Builder backlog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Builds the configured receiver, and starts listening.
+         *
+         * @return New {@link WebhookReceiver} instance.
+         * @throws IOException If the address can't be bound.
+         */
+        public WebhookReceiver build() throws IOException {
+            return new WebhookReceiver(this);
+        }
+
+    }
+
+}
+
+/**
+ * Fields of the webhook payload identifying the model it applies to.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+class WebhookPayload {
+
+    @JsonProperty("event")
+    String event;
+    @JsonProperty("project_hash_id")
+    String projectHashId;
+    @JsonProperty("branch_name")
+    String branchName;
+    @JsonProperty("server_name")
+    String serverName;
+
+}
@@ -62,4 +62,28 @@ public abstract class BaseTest {
         }
     }
 
+    /**
+     * Returns the JSON of a build, as listed in the branch history: passed if finished, pending otherwise.
+     *
+     * @param number     Build number.
+     * @param finishedAt Timestamp when the build finished, or {@code null} if it is still running.
+     * @return JSON of the build.
+     */
+    protected static String buildJson(long number, String finishedAt) {
+        return "{\"build_number\": " + number + ", \"result\": \"" + (finishedAt != null ? "passed" : "pending") + "\", "
+            + "\"finished_at\": " + (finishedAt != null ? "\"" + finishedAt + "\"" : "null") + "}";
+    }
+
+    /**
+     * Returns the JSON of a deploy, as listed in the server history: passed if finished, pending otherwise.
+     *
+     * @param number     Deploy number.
+     * @param finishedAt Timestamp when the deploy finished, or {@code null} if it is still running.
+     * @return JSON of the deploy.
+     */
+    protected static String deployJson(long number, String finishedAt) {
+        return "{\"number\": " + number + ", \"result\": \"" + (finishedAt != null ? "passed" : "pending") + "\", "
+            + "\"finished_at\": " + (finishedAt != null ? "\"" + finishedAt + "\"" : "null") + "}";
+    }
+
 }
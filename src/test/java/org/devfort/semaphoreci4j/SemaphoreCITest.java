@@ -1,14 +1,25 @@
 package org.devfort.semaphoreci4j;
 
+import org.apache.http.client.HttpResponseException;
+import org.devfort.semaphoreci4j.model.Branch;
+import org.devfort.semaphoreci4j.model.Build;
+import org.devfort.semaphoreci4j.model.FetchPlan;
 import org.devfort.semaphoreci4j.model.Project;
+import org.devfort.semaphoreci4j.model.Server;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.Assert.*;
 
 /**
@@ -54,6 +65,15 @@ public class SemaphoreCITest extends BaseTest {
         assertFalse(project.isPresent());
     }
 
+    @Test
+    public void testGetProjectByHashIdAndId() throws IOException {
+        Project project = semaphore.getProject("semaphoreci4j").get();
+
+        assertSame(semaphore.getProjectByHashId("project-hash-id").get(), project);
+        assertSame(semaphore.getProjectById(project.getId()).get(), project);
+        assertFalse(semaphore.getProjectByHashId("non-existing-hash-id").isPresent());
+    }
+
     @Test
     public void testRefresh() throws IOException {
         semaphore.refresh();
@@ -62,4 +82,127 @@ public class SemaphoreCITest extends BaseTest {
         assertEquals(semaphore.getProjects().size(), 1);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLoadFetchPlan() throws IOException {
+        stubFor(get(urlPathMatching("/projects/project-hash-id/1428889/builds/3[345]")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBodyFile("build/build-information.json")
+            .withFixedDelay(300)));
+
+        long start = System.nanoTime();
+        Map<String, Project> projects = semaphore.load(new FetchPlan.Builder()
+            .builds(3)
+            .commits()
+            .deploys(1)
+            .deadline(5, TimeUnit.SECONDS)
+            .build());
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(800));
+        Branch branch = projects.get("semaphoreci4j").getBranch("develop").get();
+        List<Build> latestBuilds = branch.getLatestBuilds(3);
+        assertEquals(latestBuilds.size(), 3);
+        for (Build build : latestBuilds) {
+            assertTrue(build.getNumber() >= 33);
+            assertFalse(build.getCommits().isEmpty());
+        }
+        for (Server server : projects.get("semaphoreci4j").getServers()) {
+            assertEquals(server.getLatestDeploys(1).size(), 1);
+        }
+        verify(0, getRequestedFor(urlEqualTo("/projects/project-hash-id/1428889?auth_token=valid-token&page=2")));
+        verify(0, getRequestedFor(urlPathMatching(".*/log")));
+
+        // the whole history is still loaded in full, keeping the latest builds loaded already
+        assertEquals(branch.getBuilds().size(), 35);
+        assertSame(branch.getBuild(35L).get(), latestBuilds.get(0));
+        for (Server server : projects.get("semaphoreci4j").getServers()) {
+            assertEquals(server.getDeploys().size(), 2);
+        }
+    }
+
+    @Test
+    public void testLoadFetchPlanSameBranchNames() throws IOException {
+        stubFor(get(urlEqualTo("/projects?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("[" + project("project-hash-id", "1428889") + ", " + project("other-hash-id", "1") + "]")));
+        stubFor(get(urlEqualTo("/projects/other-hash-id/1?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("{\"builds\": [{\"build_number\": 1, \"result\": \"passed\", "
+                + "\"build_info_url\": \"http://localhost:8089/projects/other-hash-id/1/builds/1?auth_token=valid-token\"}]}")));
+        stubFor(get(urlEqualTo("/projects/other-hash-id/1/builds/1?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBodyFile("build/build-information.json")));
+
+        Map<String, Project> projects = SemaphoreCI.lazy("valid-token").load(new FetchPlan.Builder()
+            .builds(1)
+            .commits()
+            .build());
+
+        assertEquals(projects.size(), 2);
+        verify(1, getRequestedFor(urlPathEqualTo("/projects/project-hash-id/1428889/builds/35")));
+        verify(1, getRequestedFor(urlPathEqualTo("/projects/other-hash-id/1/builds/1")));
+    }
+
+    private static String project(String hashId, String branchId) {
+        return "{\"id\": " + branchId + ", \"hash_id\": \"" + hashId + "\", \"name\": \"" + hashId + "\", \"branches\": [{"
+            + "\"branch_name\": \"develop\", "
+            + "\"branch_history_url\": \"http://localhost:8089/projects/" + hashId + "/" + branchId + "?auth_token=valid-token\"}]}";
+    }
+
+    @Test
+    public void testLoadFetchPlanDeadline() throws IOException {
+        stubFor(get(urlPathMatching("/projects/project-hash-id/1428889/builds/3[345]")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBodyFile("build/build-information.json")
+            .withFixedDelay(1000)));
+
+        try {
+            semaphore.load(new FetchPlan.Builder().builds(3).commits().deadline(200, TimeUnit.MILLISECONDS).build());
+            fail("Exception not thrown.");
+        } catch (InterruptedIOException exception) {
+            assertNotNull(exception.getMessage());
+        }
+    }
+
+    @Test
+    public void testLazyInit() throws IOException {
+        resetAllRequests();
+        SemaphoreCI lazy = SemaphoreCI.lazy("valid-token");
+
+        verify(0, getRequestedFor(urlPathEqualTo("/projects")));
+        assertEquals(lazy.getProjects().size(), 1);
+        assertSame(lazy.getProjects(), lazy.getProjects());
+        verify(1, getRequestedFor(urlPathEqualTo("/projects")));
+    }
+
+    @Test
+    public void testCreateAsync() throws Exception {
+        stubFor(get(urlEqualTo("/projects?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBodyFile("project/projects.json")
+            .withFixedDelay(500)));
+
+        long start = System.nanoTime();
+        CompletableFuture<SemaphoreCI> future = SemaphoreCI.createAsync("valid-token");
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(400));
+
+        SemaphoreCI semaphoreCI = future.get(5, TimeUnit.SECONDS);
+        assertTrue(semaphoreCI.getProject("semaphoreci4j").isPresent());
+    }
+
+    @Test
+    public void testCreateAsyncWithInvalidAuthToken() throws Exception {
+        try {
+            SemaphoreCI.createAsync("invalid-token").get(5, TimeUnit.SECONDS);
+            fail("Exception not thrown.");
+        } catch (ExecutionException exception) {
+            assertTrue(exception.getCause() instanceof HttpResponseException);
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package org.devfort.semaphoreci4j.cache;
+
+import com.google.common.base.Ticker;
+import org.devfort.semaphoreci4j.BaseTest;
+import org.devfort.semaphoreci4j.SemaphoreCI;
+import org.devfort.semaphoreci4j.client.SemaphoreHttpClient;
+import org.devfort.semaphoreci4j.model.Project;
+import org.devfort.semaphoreci4j.model.Webhook;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+public class CachingSemaphoreHttpConnectionTest extends BaseTest {
+
+    private static final String PROJECTS_URL = "http://localhost:8089/projects";
+    private static final String WEBHOOKS_URL = "http://localhost:8089/projects/project-hash-id/hooks";
+
+    private final AtomicLong time = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return time.get();
+        }
+    };
+
+    private final CachingSemaphoreHttpConnection connection = new CachingSemaphoreHttpConnection(
+        new SemaphoreHttpClient("valid-token"),
+        new CachePolicy.Builder().ticker(ticker).build());
+
+    @After
+    public void tearDown() throws IOException {
+        connection.close();
+    }
+
+    @Test
+    public void testSharedBetweenInstances() throws IOException {
+        resetAllRequests();
+        new SemaphoreCI(connection);
+        SemaphoreCI semaphoreCI = new SemaphoreCI(connection);
+
+        assertTrue(semaphoreCI.getProject("semaphoreci4j").isPresent());
+        verify(1, getRequestedFor(urlPathEqualTo("/projects")).withQueryParam("auth_token", equalTo("valid-token")));
+
+        CacheStatistics statistics = connection.getStatistics();
+        assertEquals(statistics.getHitCount(), 1);
+        assertEquals(statistics.getMissCount(), 1);
+        assertEquals(statistics.getSize(), 1);
+        assertEquals(statistics.getWeight(), new File("src/test/resources/__files/project/projects.json").length());
+    }
+
+    @Test
+    public void testExpiration() throws IOException {
+        connection.getList(PROJECTS_URL, Project.class);
+        time.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        connection.getList(PROJECTS_URL, Project.class);
+        assertEquals(connection.getStatistics().getHitCount(), 1);
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        connection.getList(PROJECTS_URL, Project.class);
+        assertEquals(connection.getStatistics().getMissCount(), 2);
+    }
+
+    @Test
+    public void testCopiesReturned() throws IOException {
+        Project project = connection.getList(PROJECTS_URL, Project.class).get(0);
+        Project cached = connection.getList(PROJECTS_URL, Project.class).get(0);
+
+        assertNotSame(cached, project);
+        assertEquals(cached, project);
+        assertEquals(cached.getHashId(), project.getHashId());
+        assertEquals(cached.getBranches().size(), project.getBranches().size());
+        assertNotSame(cached.getBranches().iterator().next(), project.getBranches().iterator().next());
+        assertEquals(cached.getContentLength(), project.getContentLength());
+        assertEquals(connection.getStatistics().getHitCount(), 1);
+    }
+
+    @Test
+    public void testInvalidationOnModification() throws IOException {
+        List<Webhook> webhooks = connection.getList(WEBHOOKS_URL, Webhook.class);
+        connection.getList(PROJECTS_URL, Project.class);
+
+        Map<String, String> data = new HashMap<>();
+        data.put("url", "http://www.yahoo.com");
+        data.put("hook_type", Webhook.Type.ALL.toString());
+        connection.post(WEBHOOKS_URL, data, Webhook.class);
+
+        assertEquals(connection.getStatistics().getSize(), 0);
+        assertNotSame(connection.getList(WEBHOOKS_URL, Webhook.class), webhooks);
+    }
+
+    @Test
+    public void testWeightBound() throws IOException {
+        try (CachingSemaphoreHttpConnection smallConnection = new CachingSemaphoreHttpConnection(
+            new SemaphoreHttpClient("valid-token"),
+            new CachePolicy.Builder().maximumWeight(16).build())) {
+            smallConnection.getList(PROJECTS_URL, Project.class);
+            smallConnection.getList(PROJECTS_URL, Project.class);
+
+            CacheStatistics statistics = smallConnection.getStatistics();
+            assertEquals(statistics.getHitCount(), 0);
+            assertEquals(statistics.getEvictionCount(), 2);
+            assertEquals(statistics.getWeight(), 0);
+        }
+    }
+
+    @Test
+    public void testEndpoint() {
+        assertEquals(Endpoint.of(PROJECTS_URL + "?auth_token=valid-token"), Endpoint.PROJECTS);
+        assertEquals(Endpoint.of(WEBHOOKS_URL + "/1"), Endpoint.WEBHOOKS);
+        assertEquals(Endpoint.of("http://localhost:8089/projects/project-hash-id/servers/1"), Endpoint.SERVER_HISTORY);
+        assertEquals(Endpoint.of("http://localhost:8089/projects/project-hash-id/servers/1/deploys/2/log"), Endpoint.DEPLOY_LOG);
+        assertEquals(Endpoint.of("http://localhost:8089/projects/project-hash-id/1428889/status"), Endpoint.BRANCH_STATUS);
+        assertEquals(Endpoint.of("http://localhost:8089/projects/project-hash-id/1428889?page=2"), Endpoint.BRANCH_HISTORY);
+        assertEquals(Endpoint.of("http://localhost:8089/projects/project-hash-id/1428889/builds/35/log"), Endpoint.BUILD_LOG);
+        assertEquals(Endpoint.of("http://localhost:8089/projects/project-hash-id/1428889/build"), Endpoint.OTHER);
+        assertEquals(Endpoint.projectOf(WEBHOOKS_URL), "project-hash-id");
+        assertNull(Endpoint.projectOf(PROJECTS_URL));
+    }
+
+}
@@ -0,0 +1,34 @@
+package org.devfort.semaphoreci4j.client;
+
+import org.devfort.semaphoreci4j.model.Project;
+import org.devfort.semaphoreci4j.model.Webhook;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MapperRegistryTest {
+
+    private final MapperRegistry registry = MapperRegistry.getDefault();
+
+    @Test
+    public void testReadersAreReused() {
+        assertSame(registry.readerFor(Project.class), registry.readerFor(Project.class));
+        assertSame(registry.listReaderFor(Project.class), registry.listReaderFor(Project.class));
+        assertNotSame(registry.readerFor(Project.class), registry.listReaderFor(Project.class));
+        assertSame(registry.writerFor(Webhook.class), registry.writerFor(Webhook.class));
+    }
+
+    @Test
+    public void testListReader() throws IOException {
+        List<Webhook> webhooks = registry.listReaderFor(Webhook.class)
+            .readValue("[{\"id\": 1, \"url\": \"http://www.foo.bar\", \"hook_type\": \"all\", \"unknown\": true}]");
+
+        assertEquals(webhooks.size(), 1);
+        assertEquals(webhooks.get(0).getId(), Long.valueOf(1));
+        assertEquals(webhooks.get(0).getType(), "all");
+    }
+
+}
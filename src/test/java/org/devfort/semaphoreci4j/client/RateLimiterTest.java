@@ -0,0 +1,55 @@
+package org.devfort.semaphoreci4j.client;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testBurst() throws IOException {
+        RateLimiter rateLimiter = new RateLimiter(1, 3);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire();
+        }
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(rateLimiter.getAvailablePermits() < 1);
+        assertTrue(rateLimiter.getWaitTime(TimeUnit.MILLISECONDS) > 500);
+    }
+
+    @Test
+    public void testSustainedRate() throws IOException {
+        long start = System.nanoTime();
+        RateLimiter rateLimiter = new RateLimiter(20, 1);
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.acquire();
+        }
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void testReservationsQueueUp() {
+        RateLimiter rateLimiter = new RateLimiter(10, 1);
+
+        assertEquals(rateLimiter.reserve(), 0);
+        long second = rateLimiter.reserve();
+        long third = rateLimiter.reserve();
+
+        assertTrue(second > 0);
+        assertTrue(third > second + TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(rateLimiter.getAvailablePermits(), 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRate() {
+        new RateLimiter(0, 1);
+    }
+
+}
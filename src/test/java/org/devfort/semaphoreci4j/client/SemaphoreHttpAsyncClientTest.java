@@ -0,0 +1,124 @@
+package org.devfort.semaphoreci4j.client;
+
+import org.apache.http.client.HttpResponseException;
+import org.devfort.semaphoreci4j.BaseTest;
+import org.devfort.semaphoreci4j.model.Project;
+import org.devfort.semaphoreci4j.model.Webhook;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.junit.Assert.*;
+
+public class SemaphoreHttpAsyncClientTest extends BaseTest {
+
+    private final SemaphoreHttpAsyncClient client = new SemaphoreHttpClient.Builder("valid-token")
+        .maxConnectionsPerRoute(2)
+        .buildAsync();
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+    }
+
+    @Test
+    public void testGetList() throws Exception {
+        List<Project> projects = client.getList("http://localhost:8089/projects", Project.class).get(5, TimeUnit.SECONDS);
+
+        assertEquals(projects.size(), 1);
+        assertEquals(projects.get(0).getName(), "semaphoreci4j");
+    }
+
+    @Test
+    public void testManyRequestsInFlight() throws Exception {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[50];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = client.getList("http://localhost:8089/projects/project-hash-id/hooks", Webhook.class);
+        }
+
+        CompletableFuture.allOf(futures).get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<?> future : futures) {
+            assertEquals(((List<?>) future.join()).size(), 1);
+        }
+    }
+
+    @Test
+    public void testSharedRateLimiter() throws Exception {
+        SemaphoreHttpClient.Builder builder = new SemaphoreHttpClient.Builder("valid-token").rateLimiter(new RateLimiter(20, 2));
+
+        try (SemaphoreHttpClient limitedClient = builder.build()) {
+            long start = System.nanoTime();
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = limitedClient.async().getList("http://localhost:8089/projects", Project.class);
+            }
+            limitedClient.getList("http://localhost:8089/projects", Project.class);
+            CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+        }
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        stubFor(get(urlEqualTo("/async-retried?auth_token=valid-token")).inScenario("async-retry")
+            .whenScenarioStateIs(STARTED)
+            .willReturn(aResponse().withStatus(503))
+            .willSetStateTo("recovered"));
+        stubFor(get(urlEqualTo("/async-retried?auth_token=valid-token")).inScenario("async-retry")
+            .whenScenarioStateIs("recovered")
+            .willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withBody("{\"id\": 7, \"url\": \"http://www.foo.bar\", \"hook_type\": \"post_build\"}")));
+        stubFor(post(urlEqualTo("/async-retried?auth_token=valid-token")).willReturn(aResponse().withStatus(503)));
+
+        RetryPolicy retryPolicy = new RetryPolicy.Builder().backoff(10, 100, TimeUnit.MILLISECONDS).build();
+        try (SemaphoreHttpAsyncClient retryingClient = new SemaphoreHttpClient.Builder("valid-token").retryPolicy(retryPolicy).buildAsync()) {
+            Webhook webhook = retryingClient.get("http://localhost:8089/async-retried", Webhook.class).get(5, TimeUnit.SECONDS);
+            assertEquals(webhook.getId(), Long.valueOf(7));
+
+            try {
+                retryingClient.post("http://localhost:8089/async-retried", null, Webhook.class).get(5, TimeUnit.SECONDS);
+                fail("Exception not thrown.");
+            } catch (ExecutionException exception) {
+                assertEquals(((HttpResponseException) exception.getCause()).getStatusCode(), 503);
+            }
+        }
+        verify(2, getRequestedFor(urlEqualTo("/async-retried?auth_token=valid-token")));
+        verify(1, postRequestedFor(urlEqualTo("/async-retried?auth_token=valid-token")));
+    }
+
+    @Test
+    public void testPost() throws Exception {
+        Map<String, String> data = new HashMap<>();
+        data.put("url", "http://www.yahoo.com");
+        data.put("hook_type", Webhook.Type.ALL.toString());
+
+        Webhook webhook = client.post("http://localhost:8089/projects/project-hash-id/hooks", data, Webhook.class).get(5, TimeUnit.SECONDS);
+
+        assertEquals(webhook.getId(), Long.valueOf(2));
+        assertEquals(webhook.getUrl(), "http://www.yahoo.com");
+    }
+
+    @Test
+    public void testInvalidAuthToken() throws Exception {
+        try (SemaphoreHttpAsyncClient invalidClient = new SemaphoreHttpAsyncClient("invalid-token")) {
+            invalidClient.getList("http://localhost:8089/projects", Project.class).get(5, TimeUnit.SECONDS);
+            fail("Exception not thrown.");
+        } catch (ExecutionException exception) {
+            assertTrue(exception.getCause() instanceof HttpResponseException);
+            assertEquals(((HttpResponseException) exception.getCause()).getStatusCode(), 401);
+        }
+    }
+
+}
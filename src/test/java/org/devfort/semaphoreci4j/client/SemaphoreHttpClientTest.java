@@ -0,0 +1,264 @@
+package org.devfort.semaphoreci4j.client;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.http.client.HttpResponseException;
+import org.devfort.semaphoreci4j.BaseTest;
+import org.devfort.semaphoreci4j.SemaphoreCI;
+import org.devfort.semaphoreci4j.model.Model;
+import org.devfort.semaphoreci4j.model.Project;
+import org.devfort.semaphoreci4j.model.Webhook;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.junit.Assert.*;
+
+public class SemaphoreHttpClientTest extends BaseTest {
+
+    @Test
+    public void testBuiltClient() throws IOException {
+        SemaphoreHttpClient client = new SemaphoreHttpClient.Builder("valid-token")
+            .maxConnectionsTotal(4)
+            .maxConnectionsPerRoute(4)
+            .keepAlive(10, TimeUnit.SECONDS)
+            .evictIdleConnections(5, TimeUnit.SECONDS)
+            .connectTimeout(1, TimeUnit.SECONDS)
+            .socketTimeout(1, TimeUnit.SECONDS)
+            .connectionRequestTimeout(1, TimeUnit.SECONDS)
+            .warmUp(2)
+            .build();
+
+        try {
+            SemaphoreCI semaphoreCI = new SemaphoreCI(client);
+
+            assertEquals(semaphoreCI.getProjects().size(), 1);
+            assertTrue(semaphoreCI.getProject("semaphoreci4j").isPresent());
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        SemaphoreHttpClient client = new SemaphoreHttpClient.Builder("valid-token")
+            .maxConnectionsPerRoute(2)
+            .build();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<List<Project>>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> client.getList("http://localhost:8089/projects", Project.class)));
+            }
+            for (Future<List<Project>> future : futures) {
+                assertEquals(future.get(5, TimeUnit.SECONDS).size(), 1);
+            }
+        } finally {
+            executor.shutdown();
+            client.close();
+        }
+    }
+
+    @Test
+    public void testDecodeChunkedResponse() throws IOException {
+        stubFor(get(urlEqualTo("/chunked?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("{\"id\": 7, \"url\": \"http://www.foo.bar\", \"hook_type\": \"post_build\"}")
+            .withChunkedDribbleDelay(4, 100)));
+
+        try (SemaphoreHttpClient client = new SemaphoreHttpClient("valid-token")) {
+            Webhook webhook = client.get("http://localhost:8089/chunked", Webhook.class);
+
+            assertNotNull(webhook);
+            assertEquals(webhook.getId(), Long.valueOf(7));
+            assertEquals(webhook.getType(), "post_build");
+        }
+    }
+
+    @Test
+    public void testDecodeEmptyResponse() throws IOException {
+        stubFor(post(urlEqualTo("/empty?auth_token=valid-token")).willReturn(aResponse().withStatus(200)));
+
+        try (SemaphoreHttpClient client = new SemaphoreHttpClient("valid-token")) {
+            assertNull(client.post("http://localhost:8089/empty", null, Webhook.class));
+        }
+    }
+
+    @Test
+    public void testConcurrentPagination() throws IOException {
+        for (int page = 1; page <= 4; page++) {
+            stubFor(get(urlEqualTo("/paginated?auth_token=valid-token" + (page > 1 ? "&page=" + page : ""))).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withHeader("Pagination", "{\"total_pages\": 4, \"current_page\": " + page + "}")
+                .withBody("{\"items\": [" + (2 * page - 1) + ", " + (2 * page) + "]}")
+                .withFixedDelay(page == 2 ? 300 : 0)));
+        }
+
+        try (SemaphoreHttpClient client = new SemaphoreHttpClient.Builder("valid-token").paginationConcurrency(3).build()) {
+            Items items = client.get("http://localhost:8089/paginated", Items.class);
+
+            assertEquals(items.items, Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8));
+        }
+        verify(4, getRequestedFor(urlPathEqualTo("/paginated")));
+    }
+
+    @Test
+    public void testValidatorCache() throws IOException {
+        stubFor(get(urlEqualTo("/conditional?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withHeader("ETag", "\"v1\"")
+            .withBody("{\"id\": 7, \"url\": \"http://www.foo.bar\", \"hook_type\": \"post_build\"}")));
+        stubFor(get(urlEqualTo("/conditional?auth_token=valid-token"))
+            .withHeader("If-None-Match", matching("\"v1.*"))
+            .willReturn(aResponse().withStatus(304)));
+
+        try (SemaphoreHttpClient client = new SemaphoreHttpClient.Builder("valid-token").validatorCache(16).build()) {
+            Webhook first = client.get("http://localhost:8089/conditional", Webhook.class);
+            Webhook second = client.get("http://localhost:8089/conditional", Webhook.class);
+
+            assertEquals(first.getId(), Long.valueOf(7));
+            assertEquals(second.getId(), Long.valueOf(7));
+            assertNotSame(first, second);
+        }
+        verify(1, getRequestedFor(urlPathEqualTo("/conditional")).withHeader("If-None-Match", matching("\"v1.*")));
+    }
+
+    @Test
+    public void testValidatorCacheWithPagination() throws IOException {
+        for (int page = 1; page <= 2; page++) {
+            String url = "/conditional-paginated?auth_token=valid-token" + (page > 1 ? "&page=" + page : "");
+            stubFor(get(urlEqualTo(url)).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withHeader("ETag", "\"page-" + page + "\"")
+                .withHeader("Pagination", "{\"total_pages\": 2, \"current_page\": " + page + "}")
+                .withBody("{\"items\": [" + page + "]}")));
+            stubFor(get(urlEqualTo(url))
+                .withHeader("If-None-Match", matching("\"page-" + page + ".*"))
+                .willReturn(aResponse().withStatus(304)));
+        }
+
+        try (SemaphoreHttpClient client = new SemaphoreHttpClient.Builder("valid-token").validatorCache(16).build()) {
+            assertEquals(client.get("http://localhost:8089/conditional-paginated", Items.class).items, Arrays.asList(1, 2));
+            assertEquals(client.get("http://localhost:8089/conditional-paginated", Items.class).items, Arrays.asList(1, 2));
+        }
+        verify(2, getRequestedFor(urlPathEqualTo("/conditional-paginated")).withHeader("If-None-Match", matching("\"page-\\d.*")));
+    }
+
+    @Test
+    public void testRetryPageWithRetryAfter() throws IOException {
+        stubFor(get(urlEqualTo("/retried?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withHeader("Pagination", "{\"total_pages\": 2, \"current_page\": 1}")
+            .withBody("{\"items\": [1]}")));
+        stubFor(get(urlEqualTo("/retried?auth_token=valid-token&page=2")).inScenario("retry")
+            .whenScenarioStateIs(STARTED)
+            .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "1"))
+            .willSetStateTo("throttled"));
+        stubFor(get(urlEqualTo("/retried?auth_token=valid-token&page=2")).inScenario("retry")
+            .whenScenarioStateIs("throttled")
+            .willReturn(aResponse().withStatus(502))
+            .willSetStateTo("recovered"));
+        stubFor(get(urlEqualTo("/retried?auth_token=valid-token&page=2")).inScenario("retry")
+            .whenScenarioStateIs("recovered")
+            .willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withHeader("Pagination", "{\"total_pages\": 2, \"current_page\": 2}")
+                .withBody("{\"items\": [2]}")));
+
+        RetryPolicy retryPolicy = new RetryPolicy.Builder().backoff(10, 100, TimeUnit.MILLISECONDS).build();
+        try (SemaphoreHttpClient client = new SemaphoreHttpClient.Builder("valid-token").retryPolicy(retryPolicy).build()) {
+            long start = System.nanoTime();
+            Items items = client.get("http://localhost:8089/retried", Items.class);
+
+            assertEquals(items.items, Arrays.asList(1, 2));
+            assertTrue(System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(1));
+        }
+        verify(1, getRequestedFor(urlEqualTo("/retried?auth_token=valid-token")));
+        verify(3, getRequestedFor(urlEqualTo("/retried?auth_token=valid-token&page=2")));
+    }
+
+    @Test
+    public void testRetryLimits() throws IOException {
+        stubFor(get(urlEqualTo("/unavailable?auth_token=valid-token")).willReturn(aResponse().withStatus(503)));
+        stubFor(post(urlEqualTo("/unavailable?auth_token=valid-token")).willReturn(aResponse().withStatus(503)));
+
+        RetryPolicy retryPolicy = new RetryPolicy.Builder().maxAttempts(3).backoff(10, 100, TimeUnit.MILLISECONDS).build();
+        try (SemaphoreHttpClient client = new SemaphoreHttpClient.Builder("valid-token").retryPolicy(retryPolicy).build()) {
+            try {
+                client.get("http://localhost:8089/unavailable", Webhook.class);
+                fail("Exception not thrown.");
+            } catch (HttpResponseException exception) {
+                assertEquals(exception.getStatusCode(), 503);
+            }
+            try {
+                client.post("http://localhost:8089/unavailable", null, Webhook.class);
+                fail("Exception not thrown.");
+            } catch (HttpResponseException exception) {
+                assertEquals(exception.getStatusCode(), 503);
+            }
+        }
+        verify(3, getRequestedFor(urlPathEqualTo("/unavailable")));
+        verify(1, postRequestedFor(urlPathEqualTo("/unavailable")));
+    }
+
+    @Test
+    public void testCoalesceConcurrentRequests() throws Exception {
+        stubFor(get(urlEqualTo("/coalesced?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("{\"id\": 7, \"url\": \"http://www.foo.bar\", \"hook_type\": \"post_build\"}")
+            .withFixedDelay(500)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (SemaphoreHttpClient client = new SemaphoreHttpClient("valid-token")) {
+            List<Future<Webhook>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> client.get("http://localhost:8089/coalesced", Webhook.class)));
+            }
+
+            Webhook first = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Webhook> future : futures) {
+                assertSame(future.get(5, TimeUnit.SECONDS), first);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        verify(1, getRequestedFor(urlPathEqualTo("/coalesced")));
+    }
+
+    public static class Items extends Model {
+
+        @JsonProperty("items")
+        private List<Integer> items;
+
+        public List<Integer> getItems() {
+            return items;
+        }
+
+        @Override
+        public Model merge(Model other) {
+            Items merged = new Items();
+            merged.items = new ArrayList<>(items);
+            merged.items.addAll(((Items) other).items);
+
+            return merged;
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.devfort.semaphoreci4j.client;
+
+import org.apache.http.client.HttpResponseException;
+import org.devfort.semaphoreci4j.BaseTest;
+import org.devfort.semaphoreci4j.SemaphoreCI;
+import org.devfort.semaphoreci4j.model.Project;
+import org.devfort.semaphoreci4j.model.Webhook;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.junit.Assert.*;
+
+public class SemaphoreHttpPipeliningClientTest extends BaseTest {
+
+    private final SemaphoreHttpPipeliningClient client = new SemaphoreHttpClient.Builder("valid-token")
+        .maxConnectionsPerRoute(2)
+        .retryPolicy(new RetryPolicy.Builder().backoff(10, 100, TimeUnit.MILLISECONDS).build())
+        .buildPipelining();
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+    }
+
+    @Test
+    public void testSemaphoreCI() throws IOException {
+        SemaphoreCI semaphoreCI = new SemaphoreCI(client);
+
+        assertTrue(semaphoreCI.getProject("semaphoreci4j").isPresent());
+        assertEquals(semaphoreCI.getProject("semaphoreci4j").get().getBranches().size(), 1);
+    }
+
+    @Test
+    public void testPipelinedPagination() throws IOException {
+        for (int page = 1; page <= 6; page++) {
+            stubFor(get(urlEqualTo("/pipelined?auth_token=valid-token" + (page > 1 ? "&page=" + page : ""))).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withHeader("Pagination", "{\"total_pages\": 6, \"current_page\": " + page + "}")
+                .withBody("{\"items\": [" + page + "]}")
+                .withChunkedDribbleDelay(3, 30)));
+        }
+        stubFor(get(urlEqualTo("/pipelined?auth_token=valid-token&page=4")).inScenario("pipelined")
+            .whenScenarioStateIs(STARTED)
+            .willReturn(aResponse().withStatus(503))
+            .willSetStateTo("recovered"));
+
+        SemaphoreHttpClientTest.Items items = client.get("http://localhost:8089/pipelined", SemaphoreHttpClientTest.Items.class);
+
+        assertEquals(items.getItems(), Arrays.asList(1, 2, 3, 4, 5, 6));
+        verify(2, getRequestedFor(urlEqualTo("/pipelined?auth_token=valid-token&page=4")));
+    }
+
+    @Test
+    public void testPostAndDelete() throws IOException {
+        Map<String, String> data = new HashMap<>();
+        data.put("url", "http://www.yahoo.com");
+        data.put("hook_type", Webhook.Type.ALL.toString());
+
+        Webhook webhook = client.post("http://localhost:8089/projects/project-hash-id/hooks", data, Webhook.class);
+
+        assertEquals(webhook.getId(), Long.valueOf(2));
+        assertTrue(client.delete("http://localhost:8089/projects/project-hash-id/hooks/1"));
+    }
+
+    @Test
+    public void testEmptyAndMalformedResponse() throws IOException {
+        stubFor(post(urlEqualTo("/empty?auth_token=valid-token")).willReturn(aResponse().withStatus(200)));
+        stubFor(get(urlEqualTo("/malformed?auth_token=valid-token")).willReturn(aResponse().withStatus(200).withBody("{\"id\": ")));
+
+        assertNull(client.post("http://localhost:8089/empty", null, Webhook.class));
+        try {
+            client.get("http://localhost:8089/malformed", Webhook.class);
+            fail("Exception not thrown.");
+        } catch (IOException exception) {
+            assertFalse(exception instanceof HttpResponseException);
+        }
+    }
+
+    @Test
+    public void testInvalidAuthToken() throws IOException {
+        try (SemaphoreHttpPipeliningClient invalidClient = new SemaphoreHttpPipeliningClient("invalid-token")) {
+            invalidClient.getList("http://localhost:8089/projects", Project.class);
+            fail("Exception not thrown.");
+        } catch (HttpResponseException exception) {
+            assertEquals(exception.getStatusCode(), 401);
+        }
+    }
+
+}
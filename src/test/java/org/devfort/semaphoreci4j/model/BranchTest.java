@@ -4,8 +4,14 @@ import org.devfort.semaphoreci4j.BaseTest;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.Assert.*;
 
 public class BranchTest extends BaseTest {
@@ -43,6 +49,41 @@ public class BranchTest extends BaseTest {
         assertEquals(branch.getBuilds().size(), 35);
     }
 
+    @Test
+    public void testGetBranchBuildHistory() throws IOException {
+        NumberedHistory<Build> history = branch.getBuildHistory();
+
+        assertSame(history, branch.getBuilds());
+        assertEquals(history.getLatest().getNumber(), Long.valueOf(35));
+        assertEquals(history.get(1).getNumber(), Long.valueOf(1));
+    }
+
+    @Test
+    public void testGetBranchBuildsAsync() throws Exception {
+        Set<Build> builds = branch.getBuildsAsync().get(5, TimeUnit.SECONDS);
+
+        assertNotNull(builds);
+        assertEquals(builds.size(), 35);
+        assertSame(builds, branch.getBuilds());
+    }
+
+    @Test
+    public void testStreamLatestBuilds() {
+        List<Long> numbers = branch.streamBuilds().limit(5).map(Build::getNumber).collect(Collectors.toList());
+
+        assertEquals(numbers, Arrays.asList(35L, 34L, 33L, 32L, 31L));
+        verify(0, getRequestedFor(urlEqualTo("/projects/project-hash-id/1428889?auth_token=valid-token&page=2")));
+    }
+
+    @Test
+    public void testStreamAllBuilds() {
+        List<Build> builds = branch.streamBuilds().collect(Collectors.toList());
+
+        assertEquals(builds.size(), 35);
+        assertEquals(builds.get(0).getNumber(), Long.valueOf(35));
+        assertEquals(builds.get(34).getNumber(), Long.valueOf(1));
+    }
+
     @Test
     public void testGetBuildByExistingNumber() throws IOException {
         Optional<Build> build = branch.getBuild(35L);
@@ -67,6 +108,81 @@ public class BranchTest extends BaseTest {
         assertNotNull(branchStatus.get());
     }
 
+    @Test
+    public void testBuildsSnapshot() throws IOException {
+        Set<Build> snapshot = branch.getBuilds();
+        Build latest = branch.getBranchStatus().get();
+        assertEquals(latest.getNumber(), Long.valueOf(35));
+        assertSame(branch.getBuild(35L).get(), latest);
+
+        try {
+            snapshot.remove(latest);
+            fail("Exception not thrown.");
+        } catch (UnsupportedOperationException exception) {
+            assertTrue(snapshot.contains(latest));
+        }
+
+        branch.refresh();
+        assertSame(branch.getBuilds(), snapshot);
+    }
+
+    @Test
+    public void testDeltaRefresh() throws IOException {
+        assertEquals(branch.getBuilds().size(), 35);
+        resetAllRequests();
+
+        stubFor(get(urlEqualTo("/projects/project-hash-id/1428889?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withHeader("Pagination", "{\"total_pages\": 2, \"current_page\": 1}")
+            .withBody("{\"builds\": [" + buildJson(36, null) + ", " + buildJson(35, "2017-12-27T16:18:01+01:00") + "]}")));
+        branch.refresh();
+
+        assertEquals(branch.getBuilds().size(), 36);
+        assertFalse(branch.getBranchStatus().get().isFinished());
+
+        stubFor(get(urlEqualTo("/projects/project-hash-id/1428889?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withHeader("Pagination", "{\"total_pages\": 2, \"current_page\": 1}")
+            .withBody("{\"builds\": [" + buildJson(36, "2017-12-28T10:00:00+01:00") + ", " + buildJson(35, "2017-12-27T16:18:01+01:00") + "]}")));
+        branch.refresh();
+
+        assertEquals(branch.getBuilds().size(), 36);
+        assertTrue(branch.getBranchStatus().get().isFinished());
+        verify(2, getRequestedFor(urlEqualTo("/projects/project-hash-id/1428889?auth_token=valid-token")));
+        verify(0, getRequestedFor(urlEqualTo("/projects/project-hash-id/1428889?auth_token=valid-token&page=2")));
+    }
+
+    @Test
+    public void testReconcileRefresh() throws IOException {
+        NumberedHistory<Build> snapshot = branch.getBuildHistory();
+        stubFor(get(urlEqualTo("/projects/project-hash-id/1428889?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withHeader("Pagination", "{\"total_pages\": 2, \"current_page\": 1}")
+            .withBody("{\"builds\": [" + buildJson(36, null) + ", " + buildJson(35, "2017-12-27T16:18:01+01:00") + "]}")));
+        branch.refresh(RefreshMode.RECONCILE);
+
+        Build running = branch.getBuild(36L).get();
+        assertNotSame(branch.getBuilds(), snapshot);
+        assertSame(branch.getBuild(35L).get(), snapshot.get(35L));
+        assertFalse(running.isFinished());
+
+        snapshot = branch.getBuildHistory();
+        stubFor(get(urlEqualTo("/projects/project-hash-id/1428889?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withHeader("Pagination", "{\"total_pages\": 2, \"current_page\": 1}")
+            .withBody("{\"builds\": [" + buildJson(36, "2017-12-28T10:00:00+01:00") + ", " + buildJson(35, "2017-12-27T16:18:01+01:00") + "]}")));
+        branch.refresh(RefreshMode.RECONCILE);
+
+        assertSame(branch.getBuilds(), snapshot);
+        assertSame(branch.getBuild(36L).get(), running);
+        assertTrue(running.isFinished());
+        assertEquals(running.getResult(), "passed");
+    }
+
     @Test
     public void testRebuildLastRevision() throws IOException {
         // TODO
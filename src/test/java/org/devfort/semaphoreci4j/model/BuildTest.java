@@ -4,8 +4,14 @@ import org.devfort.semaphoreci4j.BaseTest;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.Assert.*;
 
 public class BuildTest extends BaseTest {
@@ -72,6 +78,131 @@ public class BuildTest extends BaseTest {
         });
     }
 
+    @Test
+    public void testGetThreadsAsync() throws Exception {
+        Set<BuildThread> threads = build.getThreadsAsync().get(5, TimeUnit.SECONDS);
+
+        assertNotNull(threads);
+        assertEquals(threads.size(), 1);
+        assertSame(threads, build.getThreads());
+    }
+
+    @Test
+    public void testGetCommitsAsync() throws Exception {
+        Set<Commit> commits = build.getCommitsAsync().get(5, TimeUnit.SECONDS);
+
+        assertNotNull(commits);
+        assertEquals(commits.size(), 5);
+    }
+
+    @Test
+    public void testStreamLog() throws IOException {
+        Map<String, String> outputs = new HashMap<>();
+        StringBuilder output = new StringBuilder();
+        int[] threads = {0};
+
+        build.streamLog(new LogVisitor() {
+
+            @Override
+            public void startCommand(int index) {
+                output.setLength(0);
+            }
+
+            @Override
+            public void output(char[] chunk, int offset, int length) {
+                output.append(chunk, offset, length);
+            }
+
+            @Override
+            public void endCommand(Command command) {
+                assertNull(command.getOutput());
+                outputs.put(command.getName(), output.toString());
+            }
+
+            @Override
+            public void endThread(BuildThread thread) {
+                threads[0]++;
+            }
+
+        });
+
+        assertEquals(threads[0], build.getThreads().size());
+        build.getThreads().stream().flatMap(thread -> thread.getCommands().stream())
+            .forEach(command -> assertEquals(outputs.get(command.getName()), command.getOutput()));
+        assertFalse(outputs.isEmpty());
+    }
+
+    @Test
+    public void testSpilledThreads() throws IOException {
+        Path directory = Files.createTempDirectory("spill");
+        Map<String, String> outputs = new HashMap<>();
+        try {
+            SpillPolicy policy = new SpillPolicy.Builder().threshold(64).directory(directory).build();
+            Set<BuildThread> threads = build.getThreads(policy);
+
+            assertSame(build.getThreads(), threads);
+            assertSame(build.getThreads(new SpillPolicy.Builder().threshold(64).directory(directory).build()), threads);
+            threads.stream().flatMap(thread -> thread.getCommands().stream()).forEach(command -> {
+                assertEquals(command.isOutputSpilled(), command.getOutput().length() > 64);
+                assertEquals(command.getOutputLines().toString(), command.getOutput());
+                outputs.put(command.getName(), command.getOutput());
+            });
+            assertTrue(outputs.values().stream().anyMatch(output -> output.length() > 64));
+            assertFalse(Files.list(directory).findAny().isPresent());
+
+            for (RefreshMode mode : RefreshMode.values()) {
+                build.refresh(mode);
+                build.getThreads().stream().flatMap(thread -> thread.getCommands().stream()).forEach(command -> {
+                    assertEquals(command.isOutputSpilled(), command.getOutput().length() > 64);
+                    assertEquals(outputs.get(command.getName()), command.getOutput());
+                });
+            }
+
+            try {
+                build.getThreads(SpillPolicy.defaults());
+                fail("Exception not thrown.");
+            } catch (IllegalStateException exception) {
+                assertNotNull(exception.getMessage());
+            }
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testReconcileRefresh() throws IOException {
+        Set<Commit> commits = build.getCommits();
+        Set<BuildThread> threads = build.getThreads();
+        BuildThread thread = threads.iterator().next();
+
+        build.refresh(RefreshMode.RECONCILE);
+
+        assertSame(build.getCommits(), commits);
+        assertSame(build.getThreads(), threads);
+        assertTrue(build.getThreads().stream().anyMatch(current -> current == thread));
+
+        build.refresh(RefreshMode.REPLACE);
+
+        assertNotSame(build.getCommits(), commits);
+        assertEquals(build.getCommits(), commits);
+    }
+
+    @Test
+    public void testReconcileBuildState() throws IOException {
+        stubFor(get(urlEqualTo("/projects/project-hash-id/1428889/builds/35?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("{\"result\": \"failed\", \"started_at\": \"2017-12-27T16:16:49+01:00\", "
+                + "\"finished_at\": \"2017-12-27T16:20:00+01:00\", \"commits\": []}")));
+
+        build.refresh(RefreshMode.RECONCILE);
+
+        assertEquals(build.getResult(), "failed");
+        assertEquals(build.getFinishedAt(), "2017-12-27T16:20:00+01:00");
+        assertTrue(build.getCommits().isEmpty());
+        verify(0, getRequestedFor(urlEqualTo("/projects/project-hash-id/1428889/builds/35/log?auth_token=valid-token")));
+    }
+
     @Test
     public void testStopStoppableBuild() throws IOException {
         // TODO
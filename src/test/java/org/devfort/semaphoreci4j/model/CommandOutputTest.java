@@ -0,0 +1,57 @@
+package org.devfort.semaphoreci4j.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class CommandOutputTest {
+
+    @Test
+    public void testLines() {
+        CommandOutput output = CommandOutput.of("first\r\nsecond \u2713\n\nlast");
+
+        assertEquals(output.getLineCount(), 4);
+        assertEquals(output.getLine(1), "second \u2713");
+        assertEquals(output.lines(1, 3), Arrays.asList("second \u2713", ""));
+        assertEquals(output.tail(2), Arrays.asList("", "last"));
+        assertEquals(output.tail(10).size(), 4);
+        assertEquals(output.toString(), "first\r\nsecond \u2713\n\nlast");
+        assertEquals(CommandOutput.of("").getLineCount(), 0);
+        assertEquals(CommandOutput.of("single\n").tail(1), Collections.singletonList("single"));
+
+        try {
+            output.getLine(4);
+            fail("Exception not thrown.");
+        } catch (IndexOutOfBoundsException exception) {
+            assertTrue(exception.getMessage().contains("of 4"));
+        }
+    }
+
+    @Test
+    public void testSpill() throws IOException {
+        Path directory = Files.createTempDirectory("spill");
+        try {
+            CommandOutput.Spill spill = new CommandOutput.Spill(directory, "line 0\n");
+            for (int line = 1; line < 10000; line++) {
+                char[] chars = ("line " + line + "\n").toCharArray();
+                spill.write(chars, 0, chars.length);
+            }
+            CommandOutput output = spill.finish();
+
+            assertEquals(output.getLineCount(), 10000);
+            assertEquals(output.getLine(0), "line 0");
+            assertEquals(output.getLine(5000), "line 5000");
+            assertEquals(output.tail(2), Arrays.asList("line 9998", "line 9999"));
+            assertFalse(Files.list(directory).findAny().isPresent());
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package org.devfort.semaphoreci4j.model;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LogParserTest {
+
+    @Test
+    public void testChunkedOutput() throws IOException {
+        List<String> events = parse("{\"unknown\": {\"nested\": [1, \"two\", {\"three\": null}]}, \"threads\": ["
+            + "{\"commands\": [{\"output\": \"line \\\"1\\\"\\r\\nline \\u0032\\n\", \"result\": \"0\", \"name\": \"make\", "
+            + "\"finish_time\": null}, {\"name\": \"empty\", \"output\": null}], \"number\": 3}]}");
+
+        assertEquals(events, Arrays.asList("startThread 0", "startCommand 0", "output line", "output  \"1\"", "output \r\nli",
+            "output ne 2", "output \n", "endCommand make 0 null", "startCommand 1", "endCommand empty 0 null", "endThread 3"));
+    }
+
+    @Test
+    public void testInvalidLog() throws IOException {
+        try {
+            parse("{\"threads\": [{\"number\": 1");
+            fail("Exception not thrown.");
+        } catch (JsonParseException exception) {
+            assertTrue(exception.getMessage().contains("in the log"));
+        }
+    }
+
+    private static List<String> parse(String log) throws IOException {
+        List<String> events = new ArrayList<>();
+        new LogParser(new StringReader(log), new LogVisitor() {
+
+            @Override
+            public void startThread(int index) {
+                events.add("startThread " + index);
+            }
+
+            @Override
+            public void startCommand(int index) {
+                events.add("startCommand " + index);
+            }
+
+            @Override
+            public void output(char[] chunk, int offset, int length) {
+                events.add("output " + new String(chunk, offset, length));
+            }
+
+            @Override
+            public void endCommand(Command command) {
+                events.add("endCommand " + command.getName() + " " + command.getResult() + " " + command.getFinishTime());
+            }
+
+            @Override
+            public void endThread(BuildThread thread) {
+                events.add("endThread " + thread.getNumber());
+            }
+
+        }, 4).parse();
+        return events;
+    }
+
+}
@@ -0,0 +1,95 @@
+package org.devfort.semaphoreci4j.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NumberedHistoryTest {
+
+    private NumberedHistory<Long> history(Long... numbers) {
+        return new NumberedHistory<>(Long.class, Long::longValue, Arrays.asList(numbers));
+    }
+
+    @Test
+    public void testSortedAndDistinct() {
+        NumberedHistory<Long> history = history(5L, 1L, 3L, 5L, 2L);
+
+        assertEquals(history.size(), 4);
+        assertEquals(new ArrayList<>(history), Arrays.asList(1L, 2L, 3L, 5L));
+        assertEquals(history.getLatest(), Long.valueOf(5));
+        assertTrue(history.contains(3L));
+        assertFalse(history.contains(4L));
+        assertFalse(history.contains("3"));
+    }
+
+    @Test
+    public void testLookups() {
+        NumberedHistory<Long> history = history(10L, 20L, 30L, 40L);
+
+        assertEquals(history.get(30), Long.valueOf(30));
+        assertNull(history.get(35));
+        assertEquals(history.between(15, 40), Arrays.asList(20L, 30L, 40L));
+        assertEquals(history.between(41, Long.MAX_VALUE), Collections.emptyList());
+        assertEquals(history.latest(2), Arrays.asList(40L, 30L));
+        assertEquals(history.latest(10), Arrays.asList(40L, 30L, 20L, 10L));
+    }
+
+    @Test
+    public void testAppendAndMerge() {
+        NumberedHistory<Long> history = history(10L, 20L);
+
+        assertTrue(history.addAll(Arrays.asList(40L, 30L)));
+        assertTrue(history.add(15L));
+        assertFalse(history.add(20L));
+        assertTrue(history.addAll(Arrays.asList(5L, 20L, 25L, 25L, 50L)));
+        assertFalse(history.addAll(Arrays.asList(5L, 50L)));
+
+        assertEquals(new ArrayList<>(history), Arrays.asList(5L, 10L, 15L, 20L, 25L, 30L, 40L, 50L));
+        assertEquals(history.getLatest(), Long.valueOf(50));
+    }
+
+    @Test
+    public void testRemove() {
+        NumberedHistory<Long> history = history(1L, 2L, 3L, 4L);
+
+        assertTrue(history.remove(4L));
+        assertFalse(history.remove(4L));
+        assertEquals(history.getLatest(), Long.valueOf(3));
+
+        Iterator<Long> iterator = history.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 1) {
+                iterator.remove();
+            }
+        }
+        assertEquals(new ArrayList<>(history), Collections.singletonList(2L));
+    }
+
+    @Test
+    public void testSync() {
+        NumberedHistory<Long> history = history(1L, 2L, 3L, 4L).freeze();
+        Iterator<Long> source = Arrays.asList(6L, 5L, 4L, 3L, 2L).iterator();
+
+        NumberedHistory<Long> synced = history.sync(source, number -> number != 3);
+
+        assertEquals(new ArrayList<>(synced), Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L));
+        assertTrue(source.hasNext());
+        assertEquals(new ArrayList<>(history), Arrays.asList(1L, 2L, 3L, 4L));
+        assertSame(synced.sync(Collections.singletonList(6L).iterator(), number -> true), synced);
+    }
+
+    @Test
+    public void testDescendingIterator() {
+        List<Long> descending = new ArrayList<>();
+        history(2L, 3L, 1L).descendingIterator().forEachRemaining(descending::add);
+
+        assertEquals(descending, Arrays.asList(3L, 2L, 1L));
+    }
+
+}
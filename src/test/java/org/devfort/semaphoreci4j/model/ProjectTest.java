@@ -1,11 +1,21 @@
 package org.devfort.semaphoreci4j.model;
 
+import org.apache.http.client.HttpResponseException;
 import org.devfort.semaphoreci4j.BaseTest;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.Assert.*;
 
 public class ProjectTest extends BaseTest {
@@ -65,6 +75,96 @@ public class ProjectTest extends BaseTest {
         assertEquals(project.getServers().size(), 1);
     }
 
+    @Test
+    public void testGetProjectServersConcurrently() throws IOException {
+        stubServersWithFailure();
+
+        long start = System.nanoTime();
+        Set<Server> projectServers = project.getServers();
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(projectServers.size(), 3);
+        assertEquals(project.getServerFailures().keySet(), Collections.singleton("server-5"));
+        assertEquals(((HttpResponseException) project.getServerFailures().get("server-5")).getStatusCode(), 404);
+    }
+
+    @Test
+    public void testGetProjectServersAsyncWithFailure() throws Exception {
+        stubServersWithFailure();
+
+        Set<Server> projectServers = project.getServersAsync().get(5, TimeUnit.SECONDS);
+
+        assertEquals(projectServers.size(), 3);
+        assertEquals(project.getServerFailures().keySet(), Collections.singleton("server-5"));
+        assertEquals(((HttpResponseException) project.getServerFailures().get("server-5")).getStatusCode(), 404);
+    }
+
+    @Test
+    public void testGetProjectServersRetriesFailures() throws Exception {
+        stubServersWithFailure();
+        Set<Server> projectServers = project.getServers();
+        assertEquals(projectServers.size(), 3);
+
+        String statusPath = "/projects/project-hash-id/servers/5/status?auth_token=valid-token";
+        stubFor(get(urlEqualTo(statusPath)).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("{\"server_name\": \"server-5\"}")));
+        resetAllRequests();
+
+        Set<Server> retried = project.getServers();
+        assertEquals(retried.size(), 4);
+        assertTrue(retried.containsAll(projectServers));
+        assertTrue(project.getServerFailures().isEmpty());
+        verify(1, getRequestedFor(urlPathMatching("/projects/project-hash-id/servers.*")));
+
+        assertSame(project.getServers(), retried);
+        assertSame(project.getServersAsync().get(5, TimeUnit.SECONDS), retried);
+    }
+
+    @Test
+    public void testGetProjectServersAsyncRetriesFailures() throws Exception {
+        stubServersWithFailure();
+        assertEquals(project.getServersAsync().get(5, TimeUnit.SECONDS).size(), 3);
+
+        stubFor(get(urlEqualTo("/projects/project-hash-id/servers/5/status?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("{\"server_name\": \"server-5\"}")));
+
+        assertEquals(project.getServersAsync().get(5, TimeUnit.SECONDS).size(), 4);
+        assertTrue(project.getServerFailures().isEmpty());
+    }
+
+    private void stubServersWithFailure() {
+        StringBuilder servers = new StringBuilder("[");
+        for (int i = 2; i <= 5; i++) {
+            String statusPath = "/projects/project-hash-id/servers/" + i + "/status?auth_token=valid-token";
+            servers.append(i > 2 ? ", " : "").append("{\"id\": ").append(i).append(", \"name\": \"server-").append(i)
+                .append("\", \"server_url\": \"http://localhost:8089").append(statusPath).append("\"}");
+            stubFor(get(urlEqualTo(statusPath)).willReturn(i == 5
+                ? aResponse().withStatus(404)
+                : aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"server_name\": \"server-" + i + "\"}")
+                    .withFixedDelay(400)));
+        }
+        stubFor(get(urlEqualTo("/projects/project-hash-id/servers?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody(servers.append("]").toString())));
+    }
+
+    @Test
+    public void testGetProjectServersAsync() throws Exception {
+        Set<Server> servers = project.getServersAsync().get(5, TimeUnit.SECONDS);
+
+        assertNotNull(servers);
+        assertEquals(servers.size(), 1);
+        assertSame(servers, project.getServers());
+    }
+
     @Test
     public void testGetWebhooks() throws IOException {
         assertNotNull(project.getWebhooks());
@@ -83,6 +183,16 @@ public class ProjectTest extends BaseTest {
         assertEquals(project.getWebhooks().size(), 2);
     }
 
+    @Test
+    public void testGetWebhookById() throws IOException {
+        Webhook existing = project.getWebhook(1L).get();
+        Webhook created = project.createWebhook("http://www.yahoo.com", Webhook.Type.ALL);
+        assertSame(project.getWebhook(created.getId()).get(), created);
+
+        assertTrue(project.deleteWebhook(existing));
+        assertFalse(project.getWebhook(1L).isPresent());
+    }
+
     @Test
     public void testUpdateExistingWebhook() throws IOException {
         int hooksCount = project.getWebhooks().size();
@@ -118,6 +228,31 @@ public class ProjectTest extends BaseTest {
         assertEquals(project.getWebhooks().size(), hooksCount - 1);
     }
 
+    @Test
+    public void testConcurrentDeleteWebhook() throws Exception {
+        Webhook toDelete = project.getWebhook(1L).get();
+        Set<Webhook> snapshot = project.getWebhooks();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> project.deleteWebhook(toDelete)));
+            }
+
+            int deleted = 0;
+            for (Future<Boolean> future : futures) {
+                deleted += future.get(5, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(deleted, 1);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(snapshot.contains(toDelete));
+        assertFalse(project.getWebhooks().contains(toDelete));
+    }
+
     @Test
     public void testDeleteNonExistingWebhook() throws IOException {
         Webhook toDelete = project.getWebhooks().stream().findFirst().get();
@@ -1,11 +1,14 @@
 package org.devfort.semaphoreci4j.model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.devfort.semaphoreci4j.BaseTest;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.Optional;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.Assert.*;
 
 public class ServerTest extends BaseTest {
@@ -43,6 +46,26 @@ public class ServerTest extends BaseTest {
         assertEquals(server.getDeploys().size(), 2);
     }
 
+    @Test
+    public void testGetServerDeployHistory() throws IOException {
+        NumberedHistory<Deploy> history = server.getDeployHistory();
+
+        assertSame(history, server.getDeploys());
+        assertEquals(history.getLatest().getNumber(), Long.valueOf(2));
+        assertEquals(history.get(1).getNumber(), Long.valueOf(1));
+    }
+
+    @Test
+    public void testDeployIterator() {
+        Iterator<Deploy> deploys = server.deployIterator();
+
+        assertTrue(deploys.hasNext());
+        assertEquals(deploys.next().getNumber(), Long.valueOf(2));
+        assertTrue(deploys.hasNext());
+        assertEquals(deploys.next().getNumber(), Long.valueOf(1));
+        assertFalse(deploys.hasNext());
+    }
+
     @Test
     public void testGetDeployByExistingNumber() throws IOException {
         Optional<Deploy> deploy = server.getDeploy(1L);
@@ -67,4 +90,39 @@ public class ServerTest extends BaseTest {
         assertNotNull(serverStatus.get());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testReconcileRefresh() throws IOException {
+        NumberedHistory<Deploy> snapshot = server.getDeployHistory();
+        stubFor(get(urlEqualTo("/projects/project-hash-id/servers/1?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("{\"deploys\": [" + deployJson(3, null) + ", " + deployJson(2, "2017-12-26T12:12:34+01:00") + "]}")));
+        server.refresh(RefreshMode.RECONCILE);
+
+        Deploy running = server.getDeploy(3L).get();
+        assertNotSame(server.getDeploys(), snapshot);
+        assertSame(server.getDeploy(2L).get(), snapshot.get(2L));
+        assertFalse(running.isFinished());
+
+        snapshot = server.getDeployHistory();
+        server.update(parse(deployJson(3, "2017-12-28T10:00:00+01:00")));
+
+        assertSame(server.getDeploys(), snapshot);
+        assertSame(server.getDeploy(3L).get(), running);
+        assertTrue(running.isFinished());
+        assertEquals(running.getResult(), "passed");
+
+        stubFor(get(urlEqualTo("/projects/project-hash-id/servers/1?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("{\"deploys\": [" + deployJson(4, null) + ", " + deployJson(3, "2017-12-28T10:00:00+01:00") + "]}")));
+        server.update(parse(deployJson(4, null)));
+
+        assertEquals(server.getDeploys().size(), 4);
+        assertSame(server.getDeploy(3L).get(), running);
+    }
+
+    private static Deploy parse(String deploy) throws IOException {
+        return new ObjectMapper().readValue(deploy, Deploy.class);
+    }
+}
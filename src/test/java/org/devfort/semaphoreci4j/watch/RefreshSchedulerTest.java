@@ -0,0 +1,129 @@
+package org.devfort.semaphoreci4j.watch;
+
+import org.devfort.semaphoreci4j.BaseTest;
+import org.devfort.semaphoreci4j.model.Branch;
+import org.devfort.semaphoreci4j.model.Build;
+import org.devfort.semaphoreci4j.model.Server;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+public class RefreshSchedulerTest extends BaseTest {
+
+    private final RefreshScheduler scheduler = new RefreshScheduler.Builder()
+        .threads(1)
+        .interval(50, 400, TimeUnit.MILLISECONDS)
+        .jitter(0)
+        .build();
+
+    @After
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    public void testAdaptiveInterval() throws Exception {
+        Branch branch = semaphore.getProject("semaphoreci4j").get().getBranch("develop").get();
+        RefreshScheduler.Watch watch = scheduler.watch(branch);
+
+        assertSame(scheduler.watch(branch), watch);
+        awaitTrue(() -> watch.getInterval(TimeUnit.MILLISECONDS) == 400);
+
+        stubBuilds(buildJson(36, null));
+
+        awaitTrue(() -> watch.getInterval(TimeUnit.MILLISECONDS) == 50);
+        Build running = branch.getBuildHistory().getLatest();
+        assertEquals(running.getNumber(), Long.valueOf(36));
+
+        stubBuilds(buildJson(36, "2017-12-28T10:00:00+01:00"));
+
+        awaitTrue(running::isFinished);
+        assertSame(branch.getBuildHistory().getLatest(), running);
+    }
+
+    @Test
+    public void testChangeEvents() throws Exception {
+        Branch branch = semaphore.getProject("semaphoreci4j").get().getBranch("develop").get();
+        List<ChangeEvent> received = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (RefreshScheduler slowScheduler = new RefreshScheduler.Builder()
+            .interval(20, 100, TimeUnit.MILLISECONDS)
+            .eventQueueCapacity(1)
+            .build()) {
+            slowScheduler.addListener(event -> {
+                received.add(event);
+                if (received.size() == 1) {
+                    awaitUninterruptibly(release);
+                }
+            });
+
+            stubBuilds(buildJson(36, null));
+            slowScheduler.watch(branch);
+            awaitTrue(() -> received.size() == 1);
+
+            stubBuilds(buildJson(36, "2017-12-28T10:00:00+01:00"));
+            Thread.sleep(200);
+            stubBuilds(buildJson(37, null), buildJson(36, "2017-12-28T10:00:00+01:00"));
+            Thread.sleep(200);
+            release.countDown();
+
+            awaitTrue(() -> received.size() == 3);
+            Thread.sleep(200);
+        }
+
+        assertEquals(received.size(), 3);
+        assertEquals(((ChangeEvent.BuildStarted) received.get(0)).getBuild().getNumber(), Long.valueOf(36));
+        ChangeEvent.BuildFinished finished = (ChangeEvent.BuildFinished) received.get(1);
+        assertEquals(finished.getBuild().getNumber(), Long.valueOf(36));
+        assertEquals(finished.getResult(), "passed");
+        assertSame(finished.getBranch(), branch);
+        assertEquals(((ChangeEvent.BuildStarted) received.get(2)).getBuild().getNumber(), Long.valueOf(37));
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        Server server = semaphore.getProject("semaphoreci4j").get().getServers().iterator().next();
+        RefreshScheduler.Watch watch = scheduler.watch(server);
+        assertEquals(scheduler.getWatched().size(), 1);
+
+        watch.cancel();
+
+        assertTrue(watch.isCancelled());
+        assertTrue(scheduler.getWatched().isEmpty());
+        assertNotSame(scheduler.watch(server), watch);
+    }
+
+    private static void stubBuilds(String... builds) {
+        stubFor(get(urlEqualTo("/projects/project-hash-id/1428889?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withHeader("Pagination", "{\"total_pages\": 2, \"current_page\": 1}")
+            .withBody("{\"builds\": [" + String.join(", ", builds) + "]}")));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Condition not met in time.", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+}
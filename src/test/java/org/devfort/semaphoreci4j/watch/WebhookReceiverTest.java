@@ -0,0 +1,165 @@
+package org.devfort.semaphoreci4j.watch;
+
+import org.devfort.semaphoreci4j.BaseTest;
+import org.devfort.semaphoreci4j.SemaphoreCI;
+import org.devfort.semaphoreci4j.model.Branch;
+import org.devfort.semaphoreci4j.model.Build;
+import org.devfort.semaphoreci4j.model.Deploy;
+import org.devfort.semaphoreci4j.model.Project;
+import org.devfort.semaphoreci4j.model.Server;
+import org.junit.After;
+import org.junit.Test;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+@PowerMockIgnore({"javax.net.ssl.*", "com.sun.net.httpserver.*", "sun.net.httpserver.*"})
+public class WebhookReceiverTest extends BaseTest {
+
+    private WebhookReceiver receiver;
+
+    @Override
+    public void setUp() {
+        super.setUp();
+        try {
+            receiver = new WebhookReceiver.Builder(semaphore)
+                .address(new InetSocketAddress("localhost", 0))
+                .path("/hooks/semaphore")
+                .build();
+        } catch (IOException exception) {
+            fail("Exception thrown on initialization.");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        receiver.close();
+    }
+
+    @Test
+    public void testBuildWebhook() throws IOException {
+        Branch branch = semaphore.getProject("semaphoreci4j").get().getBranch("develop").get();
+        Build build = branch.getBuild(35L).get();
+        resetAllRequests();
+
+        assertEquals(post("POST", "{\"event\": \"build\", \"project_hash_id\": \"project-hash-id\", \"branch_name\": \"develop\", "
+            + "\"build_number\": 35, \"result\": \"failed\", \"started_at\": \"2017-12-27T16:16:49+01:00\", "
+            + "\"finished_at\": \"2017-12-27T16:19:00+01:00\"}"), 204);
+
+        assertSame(branch.getBuild(35L).get(), build);
+        assertEquals(build.getResult(), "failed");
+        assertEquals(build.getFinishedAt(), "2017-12-27T16:19:00+01:00");
+        verify(0, getRequestedFor(urlPathMatching("/projects/.*")));
+    }
+
+    @Test
+    public void testNewBuildWebhook() throws IOException {
+        Branch branch = semaphore.getProject("semaphoreci4j").get().getBranch("develop").get();
+        branch.getBuilds();
+        stubFor(get(urlEqualTo("/projects/project-hash-id/1428889?auth_token=valid-token")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withHeader("Pagination", "{\"total_pages\": 2, \"current_page\": 1}")
+            .withBody("{\"builds\": [{\"build_number\": 36, \"result\": \"pending\", \"finished_at\": null}]}")));
+
+        assertEquals(post("POST", "{\"event\": \"build\", \"project_hash_id\": \"project-hash-id\", \"branch_name\": \"develop\", "
+            + "\"build_number\": 36, \"result\": \"pending\"}"), 204);
+
+        assertTrue(branch.getBuild(36L).isPresent());
+    }
+
+    @Test
+    public void testDeployWebhook() throws IOException {
+        Project project = semaphore.getProject("semaphoreci4j").get();
+        Server server = project.getServers().iterator().next();
+        Deploy deploy = server.getDeploy(2L).get();
+
+        assertEquals(post("POST", "{\"event\": \"deploy\", \"project_hash_id\": \"project-hash-id\", \"server_name\": \""
+            + server.getName() + "\", \"number\": 2, \"result\": \"failed\", \"finished_at\": \"2017-12-28T10:00:00+01:00\"}"), 204);
+
+        assertSame(server.getDeploy(2L).get(), deploy);
+        assertEquals(deploy.getResult(), "failed");
+    }
+
+    @Test
+    public void testNotLoadedModels() throws IOException {
+        resetAllRequests();
+
+        assertEquals(post("POST", "{\"event\": \"deploy\", \"project_hash_id\": \"project-hash-id\", \"server_name\": \"staging\", "
+            + "\"number\": 3, \"result\": \"pending\"}"), 204);
+        assertEquals(post("POST", "{\"event\": \"build\", \"project_hash_id\": \"project-hash-id\", \"branch_name\": \"develop\", "
+            + "\"build_number\": 36, \"result\": \"pending\"}"), 204);
+
+        receiver.close();
+        receiver = new WebhookReceiver.Builder(SemaphoreCI.lazy("valid-token"))
+            .address(new InetSocketAddress("localhost", 0))
+            .path("/hooks/semaphore")
+            .build();
+
+        assertEquals(post("POST", "{\"event\": \"build\", \"project_hash_id\": \"project-hash-id\", \"branch_name\": \"develop\", "
+            + "\"build_number\": 36, \"result\": \"pending\"}"), 204);
+        verify(0, anyRequestedFor(anyUrl()));
+    }
+
+    @Test
+    public void testSecret() throws IOException {
+        receiver.close();
+        receiver = new WebhookReceiver.Builder(semaphore)
+            .address(new InetSocketAddress("localhost", 0))
+            .path("/hooks/semaphore")
+            .secret("webhook-secret")
+            .build();
+        Build build = semaphore.getProject("semaphoreci4j").get().getBranch("develop").get().getBuild(35L).get();
+        String payload = "{\"event\": \"build\", \"project_hash_id\": \"project-hash-id\", \"branch_name\": \"develop\", "
+            + "\"build_number\": 35, \"result\": \"failed\", \"finished_at\": \"2017-12-27T16:19:00+01:00\"}";
+
+        assertEquals(post("POST", "", null, payload), 401);
+        assertEquals(post("POST", "?token=wrong-secret", null, payload), 401);
+        assertEquals(post("POST", "", "Bearer wrong-secret", payload), 401);
+        assertEquals(build.getResult(), "stopped");
+
+        assertEquals(post("POST", "?token=webhook-secret", null, payload), 204);
+        assertEquals(post("POST", "", "Bearer webhook-secret", payload), 204);
+        assertEquals(build.getResult(), "failed");
+    }
+
+    @Test
+    public void testInvalidRequests() throws IOException {
+        assertEquals(post("POST", "{\"event\": \"build\""), 400);
+        assertEquals(post("POST", "{\"event\": \"build\"}"), 400);
+        assertEquals(post("PUT", "{}"), 405);
+        assertEquals(post("POST", "{\"event\": \"build\", \"project_hash_id\": \"unknown\", \"branch_name\": \"develop\"}"), 204);
+    }
+
+    private int post(String method, String payload) throws IOException {
+        return post(method, "", null, payload);
+    }
+
+    private int post(String method, String query, String authorization, String payload) throws IOException {
+        URL url = new URL("http://localhost:" + receiver.getAddress().getPort() + "/hooks/semaphore" + query);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod(method);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            if (authorization != null) {
+                connection.setRequestProperty("Authorization", authorization);
+            }
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(payload.getBytes(StandardCharsets.UTF_8));
+            }
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+}